@@ -0,0 +1,50 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.swagger.codegen.config.CodegenConfigurator;
+
+/**
+ * A synthetic spec with its generator configuration, shared by the benchmarks.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkSpec {
+
+    @Param({ "10", "1000", "10000" })
+    public int size;
+
+    File directory;
+
+    CodegenSettings settings;
+
+    CodegenConfigurator configurator;
+
+    @Setup
+    public void writeSpec() throws IOException {
+        directory = Files.createTempDirectory("openapi-codegen-jmh").toFile();
+
+        settings = new CodegenSettings();
+        settings.setLanguage("jaxrs-cxf-client");
+        settings.setInputSpec(SyntheticSpecs.write(directory, size));
+        settings.setOutput(new File(directory, "generated"));
+        settings.setModelPackage("com.irl.openapi.benchmark.model");
+        settings.setApiPackage("com.irl.openapi.benchmark.api");
+        settings.setGenerateModelTests(false);
+        settings.setGenerateApiTests(false);
+        configurator = settings.getCodegenConfigurator();
+    }
+
+    @TearDown
+    public void deleteSpec() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+}
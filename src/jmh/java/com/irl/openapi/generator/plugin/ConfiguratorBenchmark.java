@@ -0,0 +1,37 @@
+package com.irl.openapi.generator.plugin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.swagger.codegen.config.CodegenConfigurator;
+
+/**
+ * Building the configurator from the plugin configuration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConfiguratorBenchmark {
+
+    @Benchmark
+    public CodegenConfigurator codegenConfigurator(BenchmarkSpec spec) {
+        return spec.settings.getCodegenConfigurator();
+    }
+
+    /**
+     * The configurator of one spec of a batch, copied from the one of the batch.
+     */
+    @Benchmark
+    public CodegenConfigurator batchCodegenConfigurator(BenchmarkSpec spec) {
+        return CodegenSettings.forSpec(spec.configurator, spec.settings);
+    }
+}
@@ -0,0 +1,53 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.config.CodegenConfigurator;
+
+/**
+ * A full {@link CodegenGenerator} run on an already parsed spec. The generator modifies the
+ * model, so every invocation gets a freshly parsed one. It does not rewrite unchanged files, so
+ * every invocation also starts with an empty output directory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class GenerateBenchmark {
+
+    private GenerationOptions options;
+
+    private ClientOptInput input;
+
+    @Setup(Level.Invocation)
+    public void parse(BenchmarkSpec spec) throws IOException {
+        FileUtils.deleteDirectory(spec.settings.getOutput());
+        CodegenConfigurator configurator = spec.settings.getCodegenConfigurator();
+        options = spec.settings.getGenerationOptions();
+        input = options.apply(configurator::toClientOptInput);
+    }
+
+    @Benchmark
+    public List<File> generate() {
+        return new CodegenGenerator(options).opts(input).generate();
+    }
+}
@@ -0,0 +1,31 @@
+package com.irl.openapi.generator.plugin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.config.CodegenConfigurator;
+
+/**
+ * Parsing and resolving the spec, {@link CodegenConfigurator#toClientOptInput()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Benchmark
+    public ClientOptInput toClientOptInput(BenchmarkSpec spec) {
+        CodegenConfigurator configurator = spec.settings.getCodegenConfigurator();
+        return spec.settings.getGenerationOptions().apply(configurator::toClientOptInput);
+    }
+}
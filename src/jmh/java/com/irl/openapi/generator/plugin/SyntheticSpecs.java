@@ -0,0 +1,57 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes specs of a given size for the benchmarks: {@code size} schemas and {@code size}
+ * operations, spread over ten tags.
+ */
+final class SyntheticSpecs {
+
+    private static final int TAGS = 10;
+
+    private SyntheticSpecs() {
+    }
+
+    static File write(File directory, int size) throws IOException {
+        File spec = new File(directory, "synthetic-" + size + ".yaml");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(spec.toPath(), StandardCharsets.UTF_8))) {
+            out.println("openapi: 3.0.1");
+            out.println("info: {title: Synthetic, version: '1.0'}");
+
+            out.println("paths:");
+            for (int i = 0; i < size; i++) {
+                out.println("  /resources" + i + "/{id}:");
+                out.println("    get:");
+                out.println("      tags: [tag" + (i % TAGS) + "]");
+                out.println("      operationId: getResource" + i);
+                out.println("      parameters:");
+                out.println("        - {name: id, in: path, required: true, schema: {type: string}}");
+                out.println("      responses:");
+                out.println("        '200':");
+                out.println("          description: ok");
+                out.println("          content:");
+                out.println("            application/json:");
+                out.println("              schema: {$ref: '#/components/schemas/Model" + i + "'}");
+            }
+
+            out.println("components:");
+            out.println("  schemas:");
+            for (int i = 0; i < size; i++) {
+                out.println("    Model" + i + ":");
+                out.println("      type: object");
+                out.println("      properties:");
+                out.println("        id: {type: string}");
+                out.println("        count: {type: integer, format: int32}");
+                out.println("        created: {type: string, format: date-time}");
+                out.println("        tags: {type: array, items: {type: string}}");
+                out.println("        next: {$ref: '#/components/schemas/Model" + ((i + 1) % size) + "'}");
+            }
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,238 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+
+/**
+ * The size of the generated code: files, non-blank lines and bytes per category, and the largest
+ * generated classes. Paths are relative to the output directory, so the report of an unchanged
+ * spec is the same on every machine and can be cached with the generated files.
+ */
+class CodeSizeReport {
+
+    static final String MODELS = "models";
+
+    static final String APIS = "apis";
+
+    static final String TESTS = "tests";
+
+    static final String DOCS = "docs";
+
+    static final String SUPPORTING_FILES = "supportingFiles";
+
+    private static final List<String> CATEGORIES = Arrays.asList(MODELS, APIS, TESTS, DOCS, SUPPORTING_FILES);
+
+    private static final Set<String> CLASS_CATEGORIES = new HashSet<String>(Arrays.asList(MODELS, APIS, TESTS));
+
+    private static final int LARGEST_CLASSES = 10;
+
+    private final Map<String, Size> categories = new LinkedHashMap<String, Size>();
+
+    private final List<Map<String, Object>> largestClasses = new ArrayList<Map<String, Object>>();
+
+    CodeSizeReport() {
+        for (String category : CATEGORIES) {
+            categories.put(category, new Size());
+        }
+    }
+
+    /**
+     * Measures the generated files. The files are assigned to a category by the folders the
+     * generator renders each kind of template into, models and apis sharing a folder by the api
+     * file names.
+     */
+    static CodeSizeReport of(File outputDir, Collection<File> files, CodegenConfig config, OpenAPI openAPI)
+            throws IOException {
+        Path output = outputDir.toPath().toAbsolutePath().normalize();
+        Set<String> apiFiles = apiFileNames(openAPI, config);
+
+        CodeSizeReport report = new CodeSizeReport();
+        for (File file : files) {
+            Path path = file.toPath().toAbsolutePath().normalize();
+            if (!file.isFile()) {
+                continue;
+            }
+
+            String category;
+            if (under(path, output, config.modelTestFileFolder()) || under(path, output, config.apiTestFileFolder())) {
+                category = TESTS;
+            } else if (under(path, output, config.modelDocFileFolder()) || under(path, output, config.apiDocFileFolder())) {
+                category = DOCS;
+            } else if (under(path, output, config.apiFileFolder())
+                    && (!under(path, output, config.modelFileFolder()) || apiFiles.contains(SpecNames.baseName(file.getName())))) {
+                category = APIS;
+            } else if (under(path, output, config.modelFileFolder())) {
+                category = MODELS;
+            } else {
+                category = SUPPORTING_FILES;
+            }
+
+            String relativePath = path.startsWith(output)
+                    ? output.relativize(path).toString().replace(File.separatorChar, '/') : file.getName();
+            report.add(category, relativePath, Files.readAllBytes(path));
+        }
+        return report;
+    }
+
+    private static Set<String> apiFileNames(OpenAPI openAPI, CodegenConfig config) {
+        Set<String> names = new HashSet<String>();
+        if (openAPI == null || openAPI.getPaths() == null) {
+            return names;
+        }
+        for (PathItem pathItem : openAPI.getPaths().values()) {
+            for (Operation operation : pathItem.readOperations()) {
+                for (String tag : SpecNames.tags(operation)) {
+                    names.add(config.toApiFilename(config.sanitizeTag(tag)));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Whether the path is inside the folder. A folder that is the output directory itself does
+     * not tell the kinds of files apart, so nothing is inside it.
+     */
+    private static boolean under(Path path, Path output, String folder) {
+        if (folder == null || folder.isEmpty()) {
+            return false;
+        }
+        Path folderPath = Paths.get(folder).toAbsolutePath().normalize();
+        return !folderPath.equals(output) && path.startsWith(folderPath);
+    }
+
+    private void add(String category, String path, byte[] content) {
+        long lines = nonBlankLines(content);
+        Size size = categories.get(category);
+        size.files++;
+        size.lines += lines;
+        size.bytes += content.length;
+
+        if (CLASS_CATEGORIES.contains(category)) {
+            Map<String, Object> largestClass = new LinkedHashMap<String, Object>();
+            largestClass.put("path", path);
+            largestClass.put("category", category);
+            largestClass.put("lines", lines);
+            largestClass.put("bytes", (long) content.length);
+            addLargestClass(largestClass);
+        }
+    }
+
+    private void addLargestClass(Map<String, Object> largestClass) {
+        largestClasses.add(largestClass);
+        largestClasses.sort((a, b) -> {
+            int byLines = Long.compare(((Number) b.get("lines")).longValue(), ((Number) a.get("lines")).longValue());
+            return byLines != 0 ? byLines : String.valueOf(a.get("path")).compareTo(String.valueOf(b.get("path")));
+        });
+        while (largestClasses.size() > LARGEST_CLASSES) {
+            largestClasses.remove(largestClasses.size() - 1);
+        }
+    }
+
+    private static long nonBlankLines(byte[] content) {
+        long lines = 0;
+        boolean blank = true;
+        for (byte b : content) {
+            if (b == '\n') {
+                lines += blank ? 0 : 1;
+                blank = true;
+            } else if (!Character.isWhitespace(b)) {
+                blank = false;
+            }
+        }
+        return lines + (blank ? 0 : 1);
+    }
+
+    /**
+     * Adds the figures of another report, e.g. of another spec. The paths of its largest classes
+     * are prefixed with the given name.
+     */
+    @SuppressWarnings("unchecked")
+    void addAll(String name, Map<String, Object> other) {
+        Map<String, Map<String, Number>> otherCategories = (Map<String, Map<String, Number>>) other.get("categories");
+        if (otherCategories != null) {
+            for (Map.Entry<String, Map<String, Number>> category : otherCategories.entrySet()) {
+                Size size = categories.computeIfAbsent(category.getKey(), key -> new Size());
+                size.files += category.getValue().get("files").intValue();
+                size.lines += category.getValue().get("lines").longValue();
+                size.bytes += category.getValue().get("bytes").longValue();
+            }
+        }
+
+        List<Map<String, Object>> otherClasses = (List<Map<String, Object>>) other.get("largestClasses");
+        if (otherClasses != null) {
+            for (Map<String, Object> largestClass : otherClasses) {
+                Map<String, Object> renamed = new LinkedHashMap<String, Object>(largestClass);
+                renamed.put("path", name + ":" + largestClass.get("path"));
+                addLargestClass(renamed);
+            }
+        }
+    }
+
+    static Map<String, Object> read(File file) throws IOException {
+        return new ObjectMapper().readValue(file, new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    void write(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, toMap());
+    }
+
+    /**
+     * The figures by name, in report order.
+     */
+    Map<String, Object> toMap() {
+        Size total = new Size();
+        Map<String, Object> categoryValues = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Size> category : categories.entrySet()) {
+            categoryValues.put(category.getKey(), category.getValue().toMap());
+            total.files += category.getValue().files;
+            total.lines += category.getValue().lines;
+            total.bytes += category.getValue().bytes;
+        }
+
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        values.put("total", total.toMap());
+        values.put("categories", categoryValues);
+        values.put("largestClasses", largestClasses);
+        return values;
+    }
+
+    private static final class Size {
+
+        private int files;
+
+        private long lines;
+
+        private long bytes;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> values = new LinkedHashMap<String, Object>();
+            values.put("files", files);
+            values.put("lines", lines);
+            values.put("bytes", bytes);
+            return values;
+        }
+    }
+}
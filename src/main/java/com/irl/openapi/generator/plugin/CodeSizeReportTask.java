@@ -0,0 +1,76 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Adds up the code size reports of the generator tasks, with the total of every task, largest
+ * first, so the specs producing the most code stand out.
+ */
+public abstract class CodeSizeReportTask extends DefaultTask {
+
+    public CodeSizeReportTask() {
+        getReportFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("reports/openapi-codegen/code-size.json"));
+    }
+
+    /**
+     * The code size reports of the generator tasks, each in a directory named after its task.
+     */
+    @InputFiles
+    public abstract ConfigurableFileCollection getCodeSizeFiles();
+
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    @TaskAction
+    @SuppressWarnings("unchecked")
+    public void aggregate() throws IOException {
+        CodeSizeReport aggregate = new CodeSizeReport();
+        List<Map.Entry<String, Map<String, Object>>> tasks = new ArrayList<Map.Entry<String, Map<String, Object>>>();
+        for (File file : getCodeSizeFiles().getFiles()) {
+            if (!file.isFile()) {
+                // the generation was skipped
+                continue;
+            }
+
+            String task = file.getParentFile().getName();
+            Map<String, Object> report = CodeSizeReport.read(file);
+            aggregate.addAll(task, report);
+            tasks.add(new AbstractMap.SimpleEntry<String, Map<String, Object>>(task,
+                    (Map<String, Object>) report.get("total")));
+        }
+        tasks.sort((a, b) -> Long.compare(lines(b.getValue()), lines(a.getValue())));
+
+        Map<String, Object> taskTotals = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Map<String, Object>> task : tasks) {
+            taskTotals.put(task.getKey(), task.getValue());
+        }
+        Map<String, Object> values = aggregate.toMap();
+        values.put("tasks", taskTotals);
+
+        File reportFile = getReportFile().getAsFile().get();
+        reportFile.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, values);
+        getLogger().info("Generated code of " + tasks.size() + " specs: " + values.get("total") + ". See " + reportFile);
+    }
+
+    private static long lines(Map<String, Object> total) {
+        return total != null ? ((Number) total.get("lines")).longValue() : 0;
+    }
+}
@@ -0,0 +1,236 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.gradle.api.Action;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Generates many specs with one configuration. Every spec is generated into its own directory
+ * inside the configured {@code output}, named after the spec file without its extension, e.g.
+ * {@code orders.yaml} is generated into {@code <output>/orders}.
+ * <p>
+ * All specs are generated in one worker on a pool of {@link #getThreads() threads}, so the fixed
+ * cost of a generation is shared by the batch. When only some of the specs changed, only those
+ * are generated again, and the outputs of removed specs are deleted.
+ */
+@CacheableTask
+public abstract class CodegenBatchTask extends DefaultTask {
+
+    private final CodegenConfigurationExtension extension;
+
+    public CodegenBatchTask() {
+        extension = getObjects().newInstance(CodegenConfigurationExtension.class);
+        getThreads().convention(Runtime.getRuntime().availableProcessors());
+        getIndexDirectory().convention(getProject().getLayout().getBuildDirectory()
+                .dir("openapi-codegen/" + getName()));
+        getReportDirectory().convention(getProject().getLayout().getBuildDirectory()
+                .dir("reports/openapi-codegen/" + getName()));
+        getReferencesFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("openapi-codegen/" + getName() + "/spec-references.txt"));
+    }
+
+    @Input
+    public String getCodegenVersion() {
+        return CodegenTask.CODEGEN_VERSION;
+    }
+
+    /**
+     * The configuration shared by all specs. Its {@code inputSpec} is not used.
+     */
+    @Nested
+    public CodegenConfigurationExtension getExtension() {
+        return extension;
+    }
+
+    public void code(Action<? super CodegenConfigurationExtension> action) {
+        action.execute(extension);
+    }
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSpecs();
+
+    /**
+     * The specs with the files they reference through relative {@code $ref}s, transitively. A
+     * change to one of them regenerates the specs referencing it.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getReferencedFiles() {
+        return getObjects().fileCollection().from(getProviders().of(SpecFilesSource.class, source -> {
+            source.getParameters().getSpecs().from(getSpecs());
+            source.getParameters().getReferencesFile().set(getReferencesFile());
+        }));
+    }
+
+    /**
+     * The references between the spec files of the last execution, so that unchanged files are
+     * not searched for references again.
+     */
+    @Internal
+    public abstract RegularFileProperty getReferencesFile();
+
+    /**
+     * Number of specs generated at the same time. The number of processors by default.
+     */
+    @Internal
+    public abstract Property<Integer> getThreads();
+
+    /**
+     * The generation indexes of the specs.
+     */
+    @LocalState
+    public abstract DirectoryProperty getIndexDirectory();
+
+    @Internal
+    public abstract DirectoryProperty getReportDirectory();
+
+    @Internal
+    public abstract Property<SpecCacheService> getSpecCache();
+
+    @Internal
+    public abstract Property<TemplateCacheService> getTemplateCache();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Inject
+    protected abstract ObjectFactory getObjects();
+
+    @Inject
+    protected abstract ProviderFactory getProviders();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @TaskAction
+    public void generate() {
+        if (extension.getSkip().get()) {
+            getLogger().info("Code generation is skipped.");
+            return;
+        }
+
+        checkSpecNames();
+
+        CodegenSettings settings = extension.toSettings();
+        deleteRemovedSpecs(settings.getOutput());
+
+        // Every spec is handed over, the generation index of each spec tells whether it changed
+        Map<File, List<File>> specs = new LinkedHashMap<File, List<File>>();
+        for (Map.Entry<File, Set<File>> spec : specReferences().entrySet()) {
+            List<File> files = new ArrayList<File>();
+            files.add(spec.getKey());
+            files.addAll(spec.getValue());
+            specs.put(spec.getKey(), files);
+        }
+
+        getWorkerExecutor().noIsolation().submit(CodegenBatchWorkAction.class, parameters -> {
+            parameters.getConfiguration().set(settings);
+            parameters.getSpecs().set(specs);
+            parameters.getSpecCache().set(getSpecCache());
+            parameters.getTemplateCache().set(getTemplateCache());
+            parameters.getThreads().set(getThreads());
+            parameters.getIndexDirectory().set(getIndexDirectory());
+            parameters.getTaskName().set(getName());
+            parameters.getReportDirectory().set(getReportDirectory());
+        });
+    }
+
+    /**
+     * Deletes the outputs of the specs an earlier execution generated that are no longer part of
+     * the batch.
+     */
+    private void deleteRemovedSpecs(File output) {
+        Set<String> names = new HashSet<String>();
+        for (File spec : getSpecs()) {
+            names.add(specName(spec));
+        }
+
+        File[] indexFiles = getIndexDirectory().getAsFile().get().listFiles((dir, name) -> name.endsWith(".bin"));
+        if (indexFiles == null) {
+            return;
+        }
+        for (File indexFile : indexFiles) {
+            String name = specName(indexFile);
+            if (!names.contains(name)) {
+                getFileSystemOperations().delete(delete -> delete.delete(
+                        new File(output, name),
+                        indexFile,
+                        getReportDirectory().file(name + ".json")));
+            }
+        }
+    }
+
+    /**
+     * The files each spec references, without the spec itself, by spec.
+     */
+    private Map<File, Set<File>> specReferences() {
+        SpecReferenceGraph graph = SpecReferenceGraph.load(getReferencesFile().getAsFile().get());
+        Map<File, Set<File>> references = new LinkedHashMap<File, Set<File>>();
+        try {
+            Set<File> specs = new LinkedHashSet<File>();
+            for (File spec : getSpecs()) {
+                specs.add(spec.getCanonicalFile());
+            }
+            for (File spec : getSpecs()) {
+                Set<File> files = graph.of(spec);
+                files.removeAll(specs);
+                references.put(spec, files);
+            }
+            graph.save();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return references;
+    }
+
+    /**
+     * The output directories are named after the specs, so two specs must not have the same name.
+     */
+    private void checkSpecNames() {
+        Map<String, File> specs = new HashMap<String, File>();
+        for (File spec : getSpecs()) {
+            File other = specs.put(specName(spec), spec);
+            if (other != null) {
+                throw new GradleException("The specs " + other + " and " + spec
+                        + " would be generated into the same directory " + specName(spec));
+            }
+        }
+    }
+
+    static String specName(File spec) {
+        return SpecNames.baseName(spec.getName());
+    }
+}
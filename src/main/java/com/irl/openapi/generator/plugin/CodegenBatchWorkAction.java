@@ -0,0 +1,105 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gradle.api.GradleException;
+import org.gradle.workers.WorkAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.swagger.codegen.config.CodegenConfigurator;
+
+/**
+ * Generates a batch of specs with the same settings in one Gradle worker. The specs are
+ * generated concurrently and share the loaded generator classes and the template and spec caches,
+ * so the fixed cost of a generation is paid once per batch instead of once per spec.
+ */
+public abstract class CodegenBatchWorkAction implements WorkAction<CodegenBatchWorkParameters> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CodegenBatchWorkAction.class);
+
+    @Override
+    public void execute() {
+        CodegenSettings settings = getParameters().getConfiguration().get();
+        SpecCacheService specCache = getParameters().getSpecCache().get();
+        TemplateCacheService templateCache = getParameters().getTemplateCache().get();
+        // the specs differ only in the spec and the output, so the configuration file is read once
+        CodegenConfigurator configurator = settings.getCodegenConfigurator();
+
+        List<Callable<Void>> generations = new ArrayList<Callable<Void>>();
+        for (Map.Entry<File, List<File>> specFiles : getParameters().getSpecs().get().entrySet()) {
+            File spec = specFiles.getKey();
+            String name = CodegenBatchTask.specName(spec);
+            CodegenSettings specSettings = settings.forSpec(spec, new File(settings.getOutput(), name));
+            File indexFile = new File(getParameters().getIndexDirectory().getAsFile().get(), name + ".bin");
+            File report = new File(getParameters().getReportDirectory().getAsFile().get(), name + ".json");
+
+            generations.add(() -> {
+                GenerationMetrics metrics = new GenerationMetrics(getParameters().getTaskName().get(), spec);
+                try {
+                    new SpecGeneration(specSettings, () -> CodegenSettings.forSpec(configurator, specSettings),
+                            specCache, templateCache)
+                            .run(indexFile, specFiles.getValue(), null, metrics);
+                } catch (Exception e) {
+                    metrics.failed();
+                    throw new GenerationFailure(spec, e);
+                } finally {
+                    writeReport(metrics, report);
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(getParameters().getThreads().get());
+        try {
+            List<GenerationFailure> failures = new ArrayList<GenerationFailure>();
+            for (Future<Void> generation : executor.invokeAll(generations)) {
+                try {
+                    generation.get();
+                } catch (ExecutionException e) {
+                    GenerationFailure failure = (GenerationFailure) e.getCause();
+                    LOGGER.error("Code generation failed for " + failure.spec, failure.getCause());
+                    failures.add(failure);
+                }
+            }
+            if (!failures.isEmpty()) {
+                throw new GradleException("Code generation failed for " + failures.size()
+                        + " specs. See above for the full exceptions.", failures.get(0).getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while generating", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void writeReport(GenerationMetrics metrics, File report) {
+        try {
+            metrics.write(report);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write the generation report " + report + ": " + e.getMessage());
+        }
+    }
+
+    private static class GenerationFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File spec;
+
+        GenerationFailure(File spec, Exception cause) {
+            super(cause);
+            this.spec = spec;
+        }
+    }
+}
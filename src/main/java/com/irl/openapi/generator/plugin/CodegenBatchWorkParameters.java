@@ -0,0 +1,35 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.util.List;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkParameters;
+
+public interface CodegenBatchWorkParameters extends WorkParameters {
+
+    /**
+     * The settings shared by all specs. The input spec is ignored, the output is the directory
+     * holding the output directories of the specs.
+     */
+    Property<CodegenSettings> getConfiguration();
+
+    /**
+     * The specs to generate, each with the spec and the files it references.
+     */
+    MapProperty<File, List<File>> getSpecs();
+
+    Property<SpecCacheService> getSpecCache();
+
+    Property<TemplateCacheService> getTemplateCache();
+
+    Property<Integer> getThreads();
+
+    DirectoryProperty getIndexDirectory();
+
+    Property<String> getTaskName();
+
+    DirectoryProperty getReportDirectory();
+}
@@ -1,767 +1,1041 @@
 package com.irl.openapi.generator.plugin;
 
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyAdditionalPropertiesKvp;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyAdditionalPropertiesKvpList;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyImportMappingsKvp;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyImportMappingsKvpList;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyInstantiationTypesKvp;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyInstantiationTypesKvpList;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyLanguageSpecificPrimitivesCsv;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyLanguageSpecificPrimitivesCsvList;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyReservedWordsMappingsKvp;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyReservedWordsMappingsKvpList;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyTypeMappingsKvp;
-import static io.swagger.codegen.config.CodegenConfiguratorUtils.applyTypeMappingsKvpList;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import io.swagger.codegen.CodegenConstants;
-import io.swagger.codegen.config.CodegenConfigurator;
-
+import java.util.TreeMap;
+
+import javax.inject.Inject;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Console;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SourceSet;
+
+/**
+ * The generator configuration of one {@code openapiSources} entry. All values are lazy
+ * properties, read only when the task runs, so the configured task graph can be reused from the
+ * configuration cache. The setters keep the plain assignments of existing build scripts working.
+ */
 public class CodegenConfigurationExtension {
 
-    private boolean verbose;
+    private static final String SOURCE_FOLDER = "sourceFolder";
+
+    private final Property<Boolean> verbose;
 
     /**
      * Client language to generate. required
      */
-    private String language;
+    private final Property<String> language;
 
     /**
      * Location of the output directory.
      */
-    private File output;
+    private final DirectoryProperty output;
+
+    /**
+     * Location of the swagger spec. required. Tracked as an incremental input by
+     * {@link CodegenTask#getSpecFiles()}.
+     */
+    private final RegularFileProperty inputSpec;
 
     /**
-     * Location of the swagger spec, as URL or file. required
+     * URL of a remote spec. Downloaded before the generation, when {@code inputSpec} is not set.
      */
-    private File inputSpec;
+    private final Property<String> inputSpecUrl;
 
     /**
      * Git user ID, e.g. swagger-api.
      */
-    private String gitUserId;
+    private final Property<String> gitUserId;
 
     /**
      * Git repo ID, e.g. swagger-codegen.
      */
-    private String gitRepoId;
+    private final Property<String> gitRepoId;
 
     /**
      * Folder containing the template files.
      */
-    private File templateDirectory;
+    private final DirectoryProperty templateDirectory;
 
     /**
-     * Adds authorization headers when fetching the swagger definitions remotely. " Pass in a
+     * Adds authorization headers when fetching the swagger definitions remotely. Pass in a
      * URL-encoded string of name:header with a comma separating multiple values
      */
-    private String auth;
+    private final Property<String> auth;
 
     /**
      * Path to separate json configuration file.
      */
-    private String configurationFile;
+    private final Property<String> configurationFile;
 
     /**
      * Specifies if the existing files should be overwritten during the generation.
      */
-    private Boolean skipOverwrite;
+    private final Property<Boolean> skipOverwrite;
 
     /**
-     * Specifies if the existing files should be overwritten during the generation.
+     * Removes the prefix of the operationId, e.g. config_getId becomes getId.
      */
-    private Boolean removeOperationIdPrefix;
+    private final Property<Boolean> removeOperationIdPrefix;
 
     /**
      * The package to use for generated api objects/classes
      */
-    private String apiPackage;
+    private final Property<String> apiPackage;
 
     /**
      * The package to use for generated model objects/classes
      */
-    private String modelPackage;
+    private final Property<String> modelPackage;
 
     /**
      * The package to use for the generated invoker objects
      */
-    private String invokerPackage;
+    private final Property<String> invokerPackage;
 
     /**
      * groupId in generated pom.xml
      */
-    private String groupId;
+    private final Property<String> groupId;
 
     /**
      * artifactId in generated pom.xml
      */
-    private String artifactId;
+    private final Property<String> artifactId;
 
     /**
      * artifact version in generated pom.xml
      */
-    private String artifactVersion;
+    private final Property<String> artifactVersion;
 
     /**
      * Sets the library
      */
-    private String library;
+    private final Property<String> library;
 
     /**
      * Sets the prefix for model enums and classes
      */
-    private String modelNamePrefix;
+    private final Property<String> modelNamePrefix;
 
     /**
      * Sets the suffix for model enums and classes
      */
-    private String modelNameSuffix;
+    private final Property<String> modelNameSuffix;
 
     /**
      * Sets an optional ignoreFileOverride path
      */
-    private String ignoreFileOverride;
+    private final Property<String> ignoreFileOverride;
 
     /**
      * A map of language-specific parameters as passed with the -c option to the command line
      */
-    private Map<?, ?> configOptions;
+    private final MapProperty<String, Object> configOptions;
 
     /**
      * A map of types and the types they should be instantiated as
      */
-    private List<String> instantiationTypes;
+    private final ListProperty<String> instantiationTypes;
 
     /**
      * A map of classes and the import that should be used for that class
      */
-    private List<String> importMappings;
+    private final ListProperty<String> importMappings;
 
     /**
      * A map of swagger spec types and the generated code types to use for them
      */
-    private List<String> typeMappings;
+    private final ListProperty<String> typeMappings;
 
     /**
      * A map of additional language specific primitive types
      */
-    private List<String> languageSpecificPrimitives;
+    private final ListProperty<String> languageSpecificPrimitives;
 
     /**
      * A map of additional properties that can be referenced by the mustache templates
      */
-    private List<String> additionalProperties;
+    private final ListProperty<String> additionalProperties;
 
     /**
      * A map of reserved names and how they should be escaped
      */
-    private List<String> reservedWordsMappings;
+    private final ListProperty<String> reservedWordsMappings;
 
     /**
      * Generate the apis
      */
-    private Boolean generateApis = true;
+    private final Property<Boolean> generateApis;
 
     /**
      * Generate the models
      */
-    private Boolean generateModels = true;
+    private final Property<Boolean> generateModels;
 
     /**
      * A comma separated list of models to generate. All models is the default.
      */
-    private String modelsToGenerate = "";
+    private final Property<String> modelsToGenerate;
+
+    /**
+     * Generate only the operations with one of these tags. Untagged operations have the tag
+     * default.
+     */
+    private final ListProperty<String> apiTags;
+
+    /**
+     * Generate only the operations whose path starts with one of these prefixes.
+     */
+    private final ListProperty<String> apiPathPrefixes;
+
+    /**
+     * Generate only the operations with one of these operation ids.
+     */
+    private final ListProperty<String> apiOperationIds;
+
+    /**
+     * When the operations are filtered, generate only the models the selected operations use,
+     * directly or through other models.
+     */
+    private final Property<Boolean> pruneModels;
 
     /**
      * Generate the supporting files
      */
-    private Boolean generateSupportingFiles = true;
+    private final Property<Boolean> generateSupportingFiles;
 
     /**
-     * A comma separated list of models to generate. All models is the default.
+     * A comma separated list of supporting files to generate. All files is the default.
      */
-    private String supportingFilesToGenerate = "";
+    private final Property<String> supportingFilesToGenerate;
 
     /**
      * Generate the model tests
      */
-    private Boolean generateModelTests = true;
+    private final Property<Boolean> generateModelTests;
 
     /**
      * Generate the model documentation
      */
-    private Boolean generateModelDocumentation = true;
+    private final Property<Boolean> generateModelDocumentation;
 
     /**
      * Generate the api tests
      */
-    private Boolean generateApiTests = true;
+    private final Property<Boolean> generateApiTests;
 
     /**
      * Generate the api documentation
      */
-    private Boolean generateApiDocumentation = true;
+    private final Property<Boolean> generateApiDocumentation;
 
     /**
-     * Generate the api documentation
+     * Enable XML annotations inside the generated models and apis
      */
-    private Boolean withXml = false;
+    private final Property<Boolean> withXml;
 
     /**
      * Skip the execution.
      */
-    private Boolean skip = false;
+    private final Property<Boolean> skip;
+
+    /**
+     * Run the {@code openapiValidate<Name>} task before the generation.
+     */
+    private final Property<Boolean> validateSpec;
+
+    /**
+     * Number of threads rendering the models and apis of the spec. The output is the same as with
+     * a single thread.
+     */
+    private final Property<Integer> parallelism;
 
     /**
      * Add the output directory to the project as a source root, so that the generated java types
      * are compiled and included in the project artifact.
      */
-    private boolean addCompileSourceRoot = true;
+    private final Property<Boolean> addCompileSourceRoot;
 
-    protected Map<String, String> environmentVariables = new HashMap<String, String>();
+    /**
+     * The source set the generated sources are added to.
+     */
+    private final Property<String> sourceSet;
 
-    protected Map<String, String> originalEnvironmentVariables = new HashMap<String, String>();
+    /**
+     * System properties for the generator, scoped to the generation.
+     */
+    private final MapProperty<String, String> environmentVariables;
 
-    private boolean configHelp = false;
+    private final Property<Boolean> configHelp;
 
-    public boolean isVerbose() {
+    /**
+     * Steps transforming the parsed spec before the generation, in order.
+     */
+    private final ListProperty<SpecPreprocessor> preprocessors;
+
+    /**
+     * @deprecated system properties are scoped to the generation and no longer need restoring.
+     */
+    @Deprecated
+    protected Map<String, String> originalEnvironmentVariables = new HashMap<String, String>();
+
+    /**
+     * The directory the paths given as strings are relative to.
+     */
+    private final File projectDirectory;
+
+    @Inject
+    public CodegenConfigurationExtension(ObjectFactory objects, ProjectLayout layout) {
+        projectDirectory = layout.getProjectDirectory().getAsFile();
+        verbose = objects.property(Boolean.class);
+        verbose.convention(false);
+        language = objects.property(String.class);
+        output = objects.directoryProperty();
+        inputSpec = objects.fileProperty();
+        inputSpecUrl = objects.property(String.class);
+        gitUserId = objects.property(String.class);
+        gitRepoId = objects.property(String.class);
+        templateDirectory = objects.directoryProperty();
+        auth = objects.property(String.class);
+        configurationFile = objects.property(String.class);
+        skipOverwrite = objects.property(Boolean.class);
+        removeOperationIdPrefix = objects.property(Boolean.class);
+        apiPackage = objects.property(String.class);
+        modelPackage = objects.property(String.class);
+        invokerPackage = objects.property(String.class);
+        groupId = objects.property(String.class);
+        artifactId = objects.property(String.class);
+        artifactVersion = objects.property(String.class);
+        library = objects.property(String.class);
+        modelNamePrefix = objects.property(String.class);
+        modelNameSuffix = objects.property(String.class);
+        ignoreFileOverride = objects.property(String.class);
+        configOptions = objects.mapProperty(String.class, Object.class);
+        instantiationTypes = objects.listProperty(String.class);
+        importMappings = objects.listProperty(String.class);
+        typeMappings = objects.listProperty(String.class);
+        languageSpecificPrimitives = objects.listProperty(String.class);
+        additionalProperties = objects.listProperty(String.class);
+        reservedWordsMappings = objects.listProperty(String.class);
+        generateApis = objects.property(Boolean.class);
+        generateApis.convention(true);
+        generateModels = objects.property(Boolean.class);
+        generateModels.convention(true);
+        modelsToGenerate = objects.property(String.class);
+        modelsToGenerate.convention("");
+        apiTags = objects.listProperty(String.class);
+        apiPathPrefixes = objects.listProperty(String.class);
+        apiOperationIds = objects.listProperty(String.class);
+        pruneModels = objects.property(Boolean.class);
+        pruneModels.convention(true);
+        generateSupportingFiles = objects.property(Boolean.class);
+        generateSupportingFiles.convention(true);
+        supportingFilesToGenerate = objects.property(String.class);
+        supportingFilesToGenerate.convention("");
+        generateModelTests = objects.property(Boolean.class);
+        generateModelTests.convention(true);
+        generateModelDocumentation = objects.property(Boolean.class);
+        generateModelDocumentation.convention(true);
+        generateApiTests = objects.property(Boolean.class);
+        generateApiTests.convention(true);
+        generateApiDocumentation = objects.property(Boolean.class);
+        generateApiDocumentation.convention(true);
+        withXml = objects.property(Boolean.class);
+        withXml.convention(false);
+        skip = objects.property(Boolean.class);
+        skip.convention(false);
+        validateSpec = objects.property(Boolean.class);
+        validateSpec.convention(false);
+        parallelism = objects.property(Integer.class);
+        parallelism.convention(1);
+        addCompileSourceRoot = objects.property(Boolean.class);
+        addCompileSourceRoot.convention(true);
+        sourceSet = objects.property(String.class);
+        sourceSet.convention(SourceSet.MAIN_SOURCE_SET_NAME);
+        environmentVariables = objects.mapProperty(String.class, String.class);
+        configHelp = objects.property(Boolean.class);
+        configHelp.convention(false);
+        preprocessors = objects.listProperty(SpecPreprocessor.class);
+    }
+
+    @Console
+    public Property<Boolean> getVerbose() {
         return verbose;
     }
 
-    public void setVerbose(boolean verbose) {
-        this.verbose = verbose;
+    public void setVerbose(Boolean verbose) {
+        this.verbose.set(verbose);
     }
 
-    public String getLanguage() {
+    @Input
+    public Property<String> getLanguage() {
         return language;
     }
 
     public void setLanguage(String language) {
-        this.language = language;
+        this.language.set(language);
     }
 
-    public File getOutput() {
+    @OutputDirectory
+    public DirectoryProperty getOutput() {
         return output;
     }
 
     public void setOutput(File output) {
-        this.output = output;
+        this.output.set(output);
     }
 
-    public File getInputSpec() {
+    @Internal
+    public RegularFileProperty getInputSpec() {
         return inputSpec;
     }
 
     public void setInputSpec(File inputSpec) {
-        this.inputSpec = inputSpec;
+        this.inputSpec.set(inputSpec);
+    }
+
+    /**
+     * Tracked by the download task of the spec.
+     */
+    @Internal
+    public Property<String> getInputSpecUrl() {
+        return inputSpecUrl;
+    }
+
+    public void setInputSpecUrl(String inputSpecUrl) {
+        this.inputSpecUrl.set(inputSpecUrl);
     }
 
-    public String getGitUserId() {
+    @Input
+    @Optional
+    public Property<String> getGitUserId() {
         return gitUserId;
     }
 
     public void setGitUserId(String gitUserId) {
-        this.gitUserId = gitUserId;
+        this.gitUserId.set(gitUserId);
     }
 
-    public String getGitRepoId() {
+    @Input
+    @Optional
+    public Property<String> getGitRepoId() {
         return gitRepoId;
     }
 
     public void setGitRepoId(String gitRepoId) {
-        this.gitRepoId = gitRepoId;
+        this.gitRepoId.set(gitRepoId);
     }
 
-    public File getTemplateDirectory() {
+    @InputDirectory
+    @Optional
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public DirectoryProperty getTemplateDirectory() {
         return templateDirectory;
     }
 
     public void setTemplateDirectory(File templateDirectory) {
-        this.templateDirectory = templateDirectory;
+        this.templateDirectory.set(templateDirectory);
     }
 
-    public String getAuth() {
+    /**
+     * Authorization headers for fetching remote specs. Not an input, so credentials are not part
+     * of the task history or the build cache key.
+     */
+    @Internal
+    public Property<String> getAuth() {
         return auth;
     }
 
     public void setAuth(String auth) {
-        this.auth = auth;
+        this.auth.set(auth);
     }
 
-    public String getConfigurationFile() {
+    @Internal
+    public Property<String> getConfigurationFile() {
         return configurationFile;
     }
 
     public void setConfigurationFile(String configurationFile) {
-        this.configurationFile = configurationFile;
+        this.configurationFile.set(configurationFile);
     }
 
-    public Boolean getSkipOverwrite() {
+    @Input
+    @Optional
+    public Property<Boolean> getSkipOverwrite() {
         return skipOverwrite;
     }
 
     public void setSkipOverwrite(Boolean skipOverwrite) {
-        this.skipOverwrite = skipOverwrite;
+        this.skipOverwrite.set(skipOverwrite);
     }
 
-    public Boolean getRemoveOperationIdPrefix() {
+    @Input
+    @Optional
+    public Property<Boolean> getRemoveOperationIdPrefix() {
         return removeOperationIdPrefix;
     }
 
     public void setRemoveOperationIdPrefix(Boolean removeOperationIdPrefix) {
-        this.removeOperationIdPrefix = removeOperationIdPrefix;
+        this.removeOperationIdPrefix.set(removeOperationIdPrefix);
     }
 
-    public String getApiPackage() {
+    @Input
+    @Optional
+    public Property<String> getApiPackage() {
         return apiPackage;
     }
 
     public void setApiPackage(String apiPackage) {
-        this.apiPackage = apiPackage;
+        this.apiPackage.set(apiPackage);
     }
 
-    public String getModelPackage() {
+    @Input
+    @Optional
+    public Property<String> getModelPackage() {
         return modelPackage;
     }
 
     public void setModelPackage(String modelPackage) {
-        this.modelPackage = modelPackage;
+        this.modelPackage.set(modelPackage);
     }
 
-    public String getInvokerPackage() {
+    @Input
+    @Optional
+    public Property<String> getInvokerPackage() {
         return invokerPackage;
     }
 
     public void setInvokerPackage(String invokerPackage) {
-        this.invokerPackage = invokerPackage;
+        this.invokerPackage.set(invokerPackage);
     }
 
-    public String getGroupId() {
+    @Input
+    @Optional
+    public Property<String> getGroupId() {
         return groupId;
     }
 
     public void setGroupId(String groupId) {
-        this.groupId = groupId;
+        this.groupId.set(groupId);
     }
 
-    public String getArtifactId() {
+    @Input
+    @Optional
+    public Property<String> getArtifactId() {
         return artifactId;
     }
 
     public void setArtifactId(String artifactId) {
-        this.artifactId = artifactId;
+        this.artifactId.set(artifactId);
     }
 
-    public String getArtifactVersion() {
+    @Input
+    @Optional
+    public Property<String> getArtifactVersion() {
         return artifactVersion;
     }
 
     public void setArtifactVersion(String artifactVersion) {
-        this.artifactVersion = artifactVersion;
+        this.artifactVersion.set(artifactVersion);
     }
 
-    public String getLibrary() {
+    @Input
+    @Optional
+    public Property<String> getLibrary() {
         return library;
     }
 
     public void setLibrary(String library) {
-        this.library = library;
+        this.library.set(library);
     }
 
-    public String getModelNamePrefix() {
+    @Input
+    @Optional
+    public Property<String> getModelNamePrefix() {
         return modelNamePrefix;
     }
 
     public void setModelNamePrefix(String modelNamePrefix) {
-        this.modelNamePrefix = modelNamePrefix;
+        this.modelNamePrefix.set(modelNamePrefix);
     }
 
-    public String getModelNameSuffix() {
+    @Input
+    @Optional
+    public Property<String> getModelNameSuffix() {
         return modelNameSuffix;
     }
 
     public void setModelNameSuffix(String modelNameSuffix) {
-        this.modelNameSuffix = modelNameSuffix;
+        this.modelNameSuffix.set(modelNameSuffix);
     }
 
-    public String getIgnoreFileOverride() {
+    @Internal
+    public Property<String> getIgnoreFileOverride() {
         return ignoreFileOverride;
     }
 
     public void setIgnoreFileOverride(String ignoreFileOverride) {
-        this.ignoreFileOverride = ignoreFileOverride;
+        this.ignoreFileOverride.set(ignoreFileOverride);
     }
 
-    public Map<?, ?> getConfigOptions() {
+    @Internal
+    public MapProperty<String, Object> getConfigOptions() {
         return configOptions;
     }
 
     public void setConfigOptions(Map<?, ?> configOptions) {
-        this.configOptions = configOptions;
+        this.configOptions.set(new HashMap<String, Object>());
+        if (configOptions != null) {
+            for (Map.Entry<?, ?> entry : configOptions.entrySet()) {
+                this.configOptions.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+        }
     }
 
-    public List<String> getInstantiationTypes() {
+    @Internal
+    public ListProperty<String> getInstantiationTypes() {
         return instantiationTypes;
     }
 
     public void setInstantiationTypes(List<String> instantiationTypes) {
-        this.instantiationTypes = instantiationTypes;
+        this.instantiationTypes.set(instantiationTypes);
     }
 
-    public List<String> getImportMappings() {
+    @Internal
+    public ListProperty<String> getImportMappings() {
         return importMappings;
     }
 
     public void setImportMappings(List<String> importMappings) {
-        this.importMappings = importMappings;
+        this.importMappings.set(importMappings);
     }
 
-    public List<String> getTypeMappings() {
+    @Internal
+    public ListProperty<String> getTypeMappings() {
         return typeMappings;
     }
 
     public void setTypeMappings(List<String> typeMappings) {
-        this.typeMappings = typeMappings;
+        this.typeMappings.set(typeMappings);
     }
 
-    public List<String> getLanguageSpecificPrimitives() {
+    @Internal
+    public ListProperty<String> getLanguageSpecificPrimitives() {
         return languageSpecificPrimitives;
     }
 
     public void setLanguageSpecificPrimitives(List<String> languageSpecificPrimitives) {
-        this.languageSpecificPrimitives = languageSpecificPrimitives;
+        this.languageSpecificPrimitives.set(languageSpecificPrimitives);
     }
 
-    public List<String> getAdditionalProperties() {
+    @Internal
+    public ListProperty<String> getAdditionalProperties() {
         return additionalProperties;
     }
 
     public void setAdditionalProperties(List<String> additionalProperties) {
-        this.additionalProperties = additionalProperties;
+        this.additionalProperties.set(additionalProperties);
     }
 
-    public List<String> getReservedWordsMappings() {
+    @Internal
+    public ListProperty<String> getReservedWordsMappings() {
         return reservedWordsMappings;
     }
 
     public void setReservedWordsMappings(List<String> reservedWordsMappings) {
-        this.reservedWordsMappings = reservedWordsMappings;
+        this.reservedWordsMappings.set(reservedWordsMappings);
     }
 
-    public Boolean getGenerateApis() {
+    @Input
+    public Property<Boolean> getGenerateApis() {
         return generateApis;
     }
 
     public void setGenerateApis(Boolean generateApis) {
-        this.generateApis = generateApis;
+        this.generateApis.set(generateApis);
     }
 
-    public Boolean getGenerateModels() {
+    @Input
+    public Property<Boolean> getGenerateModels() {
         return generateModels;
     }
 
     public void setGenerateModels(Boolean generateModels) {
-        this.generateModels = generateModels;
+        this.generateModels.set(generateModels);
     }
 
-    public String getModelsToGenerate() {
+    @Input
+    public Property<String> getModelsToGenerate() {
         return modelsToGenerate;
     }
 
     public void setModelsToGenerate(String modelsToGenerate) {
-        this.modelsToGenerate = modelsToGenerate;
+        this.modelsToGenerate.set(modelsToGenerate);
+    }
+
+    @Input
+    public ListProperty<String> getApiTags() {
+        return apiTags;
     }
 
-    public Boolean getGenerateSupportingFiles() {
+    public void setApiTags(List<String> apiTags) {
+        this.apiTags.set(apiTags);
+    }
+
+    @Input
+    public ListProperty<String> getApiPathPrefixes() {
+        return apiPathPrefixes;
+    }
+
+    public void setApiPathPrefixes(List<String> apiPathPrefixes) {
+        this.apiPathPrefixes.set(apiPathPrefixes);
+    }
+
+    @Input
+    public ListProperty<String> getApiOperationIds() {
+        return apiOperationIds;
+    }
+
+    public void setApiOperationIds(List<String> apiOperationIds) {
+        this.apiOperationIds.set(apiOperationIds);
+    }
+
+    @Input
+    public Property<Boolean> getPruneModels() {
+        return pruneModels;
+    }
+
+    public void setPruneModels(Boolean pruneModels) {
+        this.pruneModels.set(pruneModels);
+    }
+
+    @Input
+    public Property<Boolean> getGenerateSupportingFiles() {
         return generateSupportingFiles;
     }
 
     public void setGenerateSupportingFiles(Boolean generateSupportingFiles) {
-        this.generateSupportingFiles = generateSupportingFiles;
+        this.generateSupportingFiles.set(generateSupportingFiles);
     }
 
-    public String getSupportingFilesToGenerate() {
+    @Input
+    public Property<String> getSupportingFilesToGenerate() {
         return supportingFilesToGenerate;
     }
 
     public void setSupportingFilesToGenerate(String supportingFilesToGenerate) {
-        this.supportingFilesToGenerate = supportingFilesToGenerate;
+        this.supportingFilesToGenerate.set(supportingFilesToGenerate);
     }
 
-    public Boolean getGenerateModelTests() {
+    @Input
+    public Property<Boolean> getGenerateModelTests() {
         return generateModelTests;
     }
 
     public void setGenerateModelTests(Boolean generateModelTests) {
-        this.generateModelTests = generateModelTests;
+        this.generateModelTests.set(generateModelTests);
     }
 
-    public Boolean getGenerateModelDocumentation() {
+    @Input
+    public Property<Boolean> getGenerateModelDocumentation() {
         return generateModelDocumentation;
     }
 
     public void setGenerateModelDocumentation(Boolean generateModelDocumentation) {
-        this.generateModelDocumentation = generateModelDocumentation;
+        this.generateModelDocumentation.set(generateModelDocumentation);
     }
 
-    public Boolean getGenerateApiTests() {
+    @Input
+    public Property<Boolean> getGenerateApiTests() {
         return generateApiTests;
     }
 
     public void setGenerateApiTests(Boolean generateApiTests) {
-        this.generateApiTests = generateApiTests;
+        this.generateApiTests.set(generateApiTests);
     }
 
-    public Boolean getGenerateApiDocumentation() {
+    @Input
+    public Property<Boolean> getGenerateApiDocumentation() {
         return generateApiDocumentation;
     }
 
     public void setGenerateApiDocumentation(Boolean generateApiDocumentation) {
-        this.generateApiDocumentation = generateApiDocumentation;
+        this.generateApiDocumentation.set(generateApiDocumentation);
     }
 
-    public Boolean getWithXml() {
+    @Input
+    public Property<Boolean> getWithXml() {
         return withXml;
     }
 
     public void setWithXml(Boolean withXml) {
-        this.withXml = withXml;
+        this.withXml.set(withXml);
     }
 
-    public Boolean getSkip() {
+    @Input
+    public Property<Boolean> getSkip() {
         return skip;
     }
 
     public void setSkip(Boolean skip) {
-        this.skip = skip;
+        this.skip.set(skip);
     }
 
-    public boolean isAddCompileSourceRoot() {
-        return addCompileSourceRoot;
+    @Internal
+    public Property<Boolean> getValidateSpec() {
+        return validateSpec;
     }
 
-    public void setAddCompileSourceRoot(boolean addCompileSourceRoot) {
-        this.addCompileSourceRoot = addCompileSourceRoot;
+    public void setValidateSpec(Boolean validateSpec) {
+        this.validateSpec.set(validateSpec);
     }
 
-    public Map<String, String> getEnvironmentVariables() {
-        return environmentVariables;
+    @Internal
+    public Property<Integer> getParallelism() {
+        return parallelism;
     }
 
-    public void setEnvironmentVariables(Map<String, String> environmentVariables) {
-        this.environmentVariables = environmentVariables;
+    public void setParallelism(Integer parallelism) {
+        this.parallelism.set(parallelism);
     }
 
-    public Map<String, String> getOriginalEnvironmentVariables() {
-        return originalEnvironmentVariables;
+    @Internal
+    public Property<Boolean> getAddCompileSourceRoot() {
+        return addCompileSourceRoot;
     }
 
-    public void setOriginalEnvironmentVariables(Map<String, String> originalEnvironmentVariables) {
-        this.originalEnvironmentVariables = originalEnvironmentVariables;
+    public void setAddCompileSourceRoot(Boolean addCompileSourceRoot) {
+        this.addCompileSourceRoot.set(addCompileSourceRoot);
     }
 
-    public boolean isConfigHelp() {
-        return configHelp;
+    @Internal
+    public Property<String> getSourceSet() {
+        return sourceSet;
     }
 
-    public void setConfigHelp(boolean configHelp) {
-        this.configHelp = configHelp;
+    public void setSourceSet(String sourceSet) {
+        this.sourceSet.set(sourceSet);
     }
 
-    public CodegenConfigurator getCodegenConfigurator() {
-        // attempt to read from config file
-        CodegenConfigurator configurator = CodegenConfigurator.fromFile(configurationFile);
-
-        // if a config file wasn't specified or we were unable to read it
-        if (configurator == null) {
-            configurator = new CodegenConfigurator();
-        }
-
-        configurator.setVerbose(verbose);
-
-        if (skipOverwrite != null) {
-            configurator.setSkipOverwrite(skipOverwrite);
-        }
-
-        if (removeOperationIdPrefix != null) {
-            configurator.setRemoveOperationIdPrefix(removeOperationIdPrefix);
-        }
-
-        if (inputSpec != null) {
-            configurator.setInputSpec(inputSpec.getAbsolutePath());
-        }
-
-        if (isNotEmpty(gitUserId)) {
-            configurator.setGitUserId(gitUserId);
-        }
-
-        if (isNotEmpty(gitRepoId)) {
-            configurator.setGitRepoId(gitRepoId);
-        }
-
-        if (isNotEmpty(ignoreFileOverride)) {
-            configurator.setIgnoreFileOverride(ignoreFileOverride);
-        }
-
-        configurator.setLang(language);
-
-        configurator.setOutputDir(output.getAbsolutePath());
-
-        if (isNotEmpty(auth)) {
-            configurator.setAuth(auth);
-        }
-
-        if (isNotEmpty(apiPackage)) {
-            configurator.setApiPackage(apiPackage);
-        }
-
-        if (isNotEmpty(modelPackage)) {
-            configurator.setModelPackage(modelPackage);
-        }
-
-        if (isNotEmpty(invokerPackage)) {
-            configurator.setInvokerPackage(invokerPackage);
-        }
-
-        if (isNotEmpty(groupId)) {
-            configurator.setGroupId(groupId);
-        }
-
-        if (isNotEmpty(artifactId)) {
-            configurator.setArtifactId(artifactId);
-        }
-
-        if (isNotEmpty(artifactVersion)) {
-            configurator.setArtifactVersion(artifactVersion);
-        }
+    /**
+     * The directory of the generated java sources inside the output directory: the
+     * {@code sourceFolder} config option, or the default source folder of the language. The output
+     * directory itself for languages without a source folder.
+     */
+    @Internal
+    public File getSourceDirectory() {
+        Object sourceFolder = configOptions.getOrElse(new HashMap<String, Object>()).get(SOURCE_FOLDER);
+        String folder = sourceFolder != null
+                ? sourceFolder.toString() : LanguageLoader.sourceFolder(language.getOrNull());
+        return folder.isEmpty() ? output.get().getAsFile() : output.dir(folder).get().getAsFile();
+    }
 
-        if (isNotEmpty(library)) {
-            configurator.setLibrary(library);
-        }
+    @Internal
+    public MapProperty<String, String> getEnvironmentVariables() {
+        return environmentVariables;
+    }
 
-        if (isNotEmpty(modelNamePrefix)) {
-            configurator.setModelNamePrefix(modelNamePrefix);
-        }
+    public void setEnvironmentVariables(Map<String, String> environmentVariables) {
+        this.environmentVariables.set(environmentVariables);
+    }
 
-        if (isNotEmpty(modelNameSuffix)) {
-            configurator.setModelNameSuffix(modelNameSuffix);
-        }
+    @Input
+    public Property<Boolean> getConfigHelp() {
+        return configHelp;
+    }
 
-        if (null != templateDirectory) {
-            configurator.setTemplateDir(templateDirectory.getAbsolutePath());
-        }
+    public void setConfigHelp(Boolean configHelp) {
+        this.configHelp.set(configHelp);
+    }
 
-        // Set generation options
-        if (null != generateApis && generateApis) {
-            System.setProperty(CodegenConstants.APIS, "");
-        } else {
-            System.clearProperty(CodegenConstants.APIS);
-        }
+    @Internal
+    public ListProperty<SpecPreprocessor> getPreprocessors() {
+        return preprocessors;
+    }
 
-        if (null != generateModels && generateModels) {
-            System.setProperty(CodegenConstants.MODELS, modelsToGenerate);
-        } else {
-            System.clearProperty(CodegenConstants.MODELS);
+    /**
+     * The preprocessing steps and their configuration as a task input.
+     */
+    @Input
+    public List<String> getPreprocessorKeys() {
+        List<String> keys = new ArrayList<String>();
+        for (SpecPreprocessor preprocessor : preprocessors.get()) {
+            keys.add(preprocessor.getClass().getName() + " " + preprocessor.getKey());
         }
+        return keys;
+    }
 
-        if (null != generateSupportingFiles && generateSupportingFiles) {
-            System.setProperty(CodegenConstants.SUPPORTING_FILES, supportingFilesToGenerate);
-        } else {
-            System.clearProperty(CodegenConstants.SUPPORTING_FILES);
+    /**
+     * The files the preprocessing steps read, e.g. merged spec fragments.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public List<File> getPreprocessorFiles() {
+        List<File> files = new ArrayList<File>();
+        for (SpecPreprocessor preprocessor : preprocessors.get()) {
+            files.addAll(preprocessor.getFiles());
         }
+        return files;
+    }
 
-        System.setProperty(CodegenConstants.MODEL_TESTS, generateModelTests.toString());
-        System.setProperty(CodegenConstants.MODEL_DOCS, generateModelDocumentation.toString());
-        System.setProperty(CodegenConstants.API_TESTS, generateApiTests.toString());
-        System.setProperty(CodegenConstants.API_DOCS, generateApiDocumentation.toString());
-        System.setProperty(CodegenConstants.WITH_XML, withXml.toString());
-
-        if (configOptions != null) {
-            // Retained for backwards-compataibility with configOptions -> instantiation-types
-            if (instantiationTypes == null && configOptions.containsKey("instantiation-types")) {
-                applyInstantiationTypesKvp(configOptions.get("instantiation-types").toString(),
-                        configurator);
-            }
-
-            // Retained for backwards-compataibility with configOptions -> import-mappings
-            if (importMappings == null && configOptions.containsKey("import-mappings")) {
-                applyImportMappingsKvp(configOptions.get("import-mappings").toString(),
-                        configurator);
-            }
-
-            // Retained for backwards-compataibility with configOptions -> type-mappings
-            if (typeMappings == null && configOptions.containsKey("type-mappings")) {
-                applyTypeMappingsKvp(configOptions.get("type-mappings").toString(), configurator);
-            }
-
-            // Retained for backwards-compataibility with configOptions -> language-specific-primitives
-            if (languageSpecificPrimitives == null && configOptions.containsKey("language-specific-primitives")) {
-                applyLanguageSpecificPrimitivesCsv(configOptions
-                        .get("language-specific-primitives").toString(), configurator);
-            }
-
-            // Retained for backwards-compataibility with configOptions -> additional-properties
-            if (additionalProperties == null && configOptions.containsKey("additional-properties")) {
-                applyAdditionalPropertiesKvp(configOptions.get("additional-properties").toString(),
-                        configurator);
-            }
-
-            // Retained for backwards-compataibility with configOptions -> reserved-words-mappings
-            if (reservedWordsMappings == null && configOptions.containsKey("reserved-words-mappings")) {
-                applyReservedWordsMappingsKvp(configOptions.get("reserved-words-mappings")
-                        .toString(), configurator);
-            }
-        }
+    @Internal
+    @Deprecated
+    public Map<String, String> getOriginalEnvironmentVariables() {
+        return originalEnvironmentVariables;
+    }
 
-        //Apply Instantiation Types
-        if (instantiationTypes != null && !configOptions.containsKey("instantiation-types")) {
-            applyInstantiationTypesKvpList(instantiationTypes, configurator);
-        }
+    @Deprecated
+    public void setOriginalEnvironmentVariables(Map<String, String> originalEnvironmentVariables) {
+        this.originalEnvironmentVariables = originalEnvironmentVariables;
+    }
 
-        //Apply Import Mappings
-        if (importMappings != null && !configOptions.containsKey("import-mappings")) {
-            applyImportMappingsKvpList(importMappings, configurator);
-        }
+    /**
+     * The separate json configuration file as a task input, so edits to it are picked up by the
+     * up-to-date check.
+     */
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public File getConfigurationFileInput() {
+        return isNotEmpty(configurationFile.getOrNull()) ? projectFile(configurationFile.get()) : null;
+    }
 
-        //Apply Type Mappings
-        if (typeMappings != null && !configOptions.containsKey("type-mappings")) {
-            applyTypeMappingsKvpList(typeMappings, configurator);
-        }
+    /**
+     * The ignore file override as a task input. Tracked by content rather than by its path so
+     * that the build cache key does not depend on the checkout location.
+     */
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public File getIgnoreFileOverrideInput() {
+        return isNotEmpty(ignoreFileOverride.getOrNull()) ? projectFile(ignoreFileOverride.get()) : null;
+    }
 
-        //Apply Language Specific Primitives
-        if (languageSpecificPrimitives != null && !configOptions.containsKey("language-specific-primitives")) {
-            applyLanguageSpecificPrimitivesCsvList(languageSpecificPrimitives, configurator);
-        }
+    /**
+     * A path of the build script, relative to the project directory unless it is absolute, like
+     * the paths given to {@code file()}.
+     */
+    private File projectFile(String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(projectDirectory, path);
+    }
 
-        //Apply Additional Properties
-        if (additionalProperties != null && !configOptions.containsKey("additional-properties")) {
-            applyAdditionalPropertiesKvpList(additionalProperties, configurator);
+    /**
+     * Normalized fingerprint of the option lists and maps. Map entries are sorted by key so the
+     * declaration order in the build script does not change the task inputs.
+     */
+    @Input
+    public String getOptionsFingerprint() {
+        Map<String, Object> options = new TreeMap<String, Object>();
+        options.put("configOptions", normalize(configOptions.getOrNull()));
+        options.put("instantiationTypes", instantiationTypes.getOrNull());
+        options.put("importMappings", importMappings.getOrNull());
+        options.put("typeMappings", typeMappings.getOrNull());
+        options.put("languageSpecificPrimitives", languageSpecificPrimitives.getOrNull());
+        options.put("additionalProperties", additionalProperties.getOrNull());
+        options.put("reservedWordsMappings", reservedWordsMappings.getOrNull());
+        options.put("environmentVariables", normalize(environmentVariables.getOrNull()));
+
+        return Hashing.sha256Hex(options.toString());
+    }
+
+    private static Map<String, String> normalize(Map<?, ?> map) {
+        if (map == null) {
+            return null;
         }
 
-        //Apply Reserved Words Mappings
-        if (reservedWordsMappings != null && !configOptions.containsKey("reserved-words-mappings")) {
-            applyReservedWordsMappingsKvpList(reservedWordsMappings, configurator);
+        Map<String, String> normalized = new TreeMap<String, String>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            normalized.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
         }
+        return normalized;
+    }
 
-        if (environmentVariables != null) {
-
-            for (String key : environmentVariables.keySet()) {
-                originalEnvironmentVariables.put(key, System.getProperty(key));
-                String value = environmentVariables.get(key);
-                if (value == null) {
-                    // don't put null values
-                    value = "";
-                }
-                System.setProperty(key, value);
-                configurator.addSystemProperty(key, value);
-            }
+    /**
+     * The current values, for the worker running the generation.
+     */
+    CodegenSettings toSettings() {
+        CodegenSettings settings = new CodegenSettings();
+        settings.setVerbose(verbose.get());
+        settings.setLanguage(language.getOrNull());
+        settings.setOutput(output.getAsFile().getOrNull());
+        settings.setInputSpec(inputSpec.getAsFile().getOrNull());
+        settings.setGitUserId(gitUserId.getOrNull());
+        settings.setGitRepoId(gitRepoId.getOrNull());
+        settings.setTemplateDirectory(templateDirectory.getAsFile().getOrNull());
+        settings.setAuth(auth.getOrNull());
+        File configurationFileInput = getConfigurationFileInput();
+        settings.setConfigurationFile(configurationFileInput != null ? configurationFileInput.getPath() : null);
+        settings.setSkipOverwrite(skipOverwrite.getOrNull());
+        settings.setRemoveOperationIdPrefix(removeOperationIdPrefix.getOrNull());
+        settings.setApiPackage(apiPackage.getOrNull());
+        settings.setModelPackage(modelPackage.getOrNull());
+        settings.setInvokerPackage(invokerPackage.getOrNull());
+        settings.setGroupId(groupId.getOrNull());
+        settings.setArtifactId(artifactId.getOrNull());
+        settings.setArtifactVersion(artifactVersion.getOrNull());
+        settings.setLibrary(library.getOrNull());
+        settings.setModelNamePrefix(modelNamePrefix.getOrNull());
+        settings.setModelNameSuffix(modelNameSuffix.getOrNull());
+        File ignoreFileOverrideInput = getIgnoreFileOverrideInput();
+        settings.setIgnoreFileOverride(ignoreFileOverrideInput != null ? ignoreFileOverrideInput.getPath() : null);
+        settings.setConfigOptions(configOptions.isPresent() ? normalize(configOptions.get()) : null);
+        settings.setInstantiationTypes(nullIfEmpty(instantiationTypes));
+        settings.setImportMappings(nullIfEmpty(importMappings));
+        settings.setTypeMappings(nullIfEmpty(typeMappings));
+        settings.setLanguageSpecificPrimitives(nullIfEmpty(languageSpecificPrimitives));
+        settings.setAdditionalProperties(nullIfEmpty(additionalProperties));
+        settings.setReservedWordsMappings(nullIfEmpty(reservedWordsMappings));
+        settings.setGenerateApis(generateApis.get());
+        settings.setGenerateModels(generateModels.get());
+        settings.setModelsToGenerate(modelsToGenerate.get());
+        settings.setGenerateSupportingFiles(generateSupportingFiles.get());
+        settings.setSupportingFilesToGenerate(supportingFilesToGenerate.get());
+        settings.setGenerateModelTests(generateModelTests.get());
+        settings.setGenerateModelDocumentation(generateModelDocumentation.get());
+        settings.setGenerateApiTests(generateApiTests.get());
+        settings.setGenerateApiDocumentation(generateApiDocumentation.get());
+        settings.setWithXml(withXml.get());
+        settings.setSkip(skip.get());
+        settings.setParallelism(parallelism.get());
+        settings.setEnvironmentVariables(new HashMap<String, String>(environmentVariables.getOrElse(new HashMap<String, String>())));
+        settings.setConfigHelp(configHelp.get());
+        settings.setPreprocessors(new ArrayList<SpecPreprocessor>(preprocessors.get()));
+        if (!apiTags.get().isEmpty() || !apiPathPrefixes.get().isEmpty() || !apiOperationIds.get().isEmpty()) {
+            // filtered after the preprocessing, so merged fragments are filtered as well
+            settings.getPreprocessors().add(SpecPreprocessors.filterApis(apiTags.get(), apiPathPrefixes.get(),
+                    apiOperationIds.get(), pruneModels.get()));
         }
+        return settings;
+    }
 
-		return configurator;
+    /**
+     * An unset list, like the lists of the settings, so the older configOptions entries still
+     * apply when the list is not configured.
+     */
+    private static List<String> nullIfEmpty(ListProperty<String> list) {
+        List<String> values = list.getOrNull();
+        return values == null || values.isEmpty() ? null : new ArrayList<String>(values);
     }
-}
\ No newline at end of file
+}
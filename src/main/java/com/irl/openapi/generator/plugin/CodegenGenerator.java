@@ -0,0 +1,123 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.DefaultGenerator;
+import io.swagger.codegen.Generator;
+
+/**
+ * {@link DefaultGenerator} that takes its generation switches from a {@link GenerationOptions}
+ * object instead of the JVM-wide system properties, and reads its templates through a
+ * {@link TemplateCacheService.Templates} cache.
+ * <p>
+ * Files that already have the generated content are not written again. Their timestamps stay
+ * the same, so incremental compilation of the generated sources only sees the files that really
+ * changed.
+ * <p>
+ * With {@link GenerationOptions#renderModels(boolean) renderModels(false)} the models are
+ * processed, e.g. for the api templates, but not rendered.
+ */
+public class CodegenGenerator extends DefaultGenerator {
+
+    static final List<String> MODEL_TEMPLATES = Arrays.asList(
+            "modelTemplateFiles", "modelTestTemplateFiles", "modelDocTemplateFiles");
+
+    static final List<String> API_TEMPLATES = Arrays.asList(
+            "apiTemplateFiles", "apiTestTemplateFiles", "apiDocTemplateFiles");
+
+    private final GenerationOptions options;
+
+    private final TemplateCacheService.Templates templates;
+
+    private final WriteStatistics statistics;
+
+    public CodegenGenerator(GenerationOptions options) {
+        this(options, null, new WriteStatistics());
+    }
+
+    public CodegenGenerator(GenerationOptions options, TemplateCacheService.Templates templates,
+            WriteStatistics statistics) {
+        this.options = options;
+        this.templates = templates;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Generator opts(ClientOptInput input) {
+        if (!options.isRenderModels()) {
+            input.config(withoutTemplates(input.getConfig(), MODEL_TEMPLATES));
+        }
+        return super.opts(input);
+    }
+
+    @Override
+    public List<File> generate() {
+        return options.apply(super::generate);
+    }
+
+    @Override
+    public File writeToFile(String filename, String contents) throws IOException {
+        File file = new File(filename);
+        write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private void write(File file, byte[] bytes) throws IOException {
+        long start = System.nanoTime();
+        if (file.isFile() && file.length() == bytes.length
+                && Hashing.sha256Hex(bytes).equals(Hashing.sha256Hex(file))) {
+            statistics.fileSkipped(System.nanoTime() - start);
+            return;
+        }
+
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        Files.write(file.toPath(), bytes);
+        statistics.fileWritten(bytes.length, System.nanoTime() - start);
+    }
+
+    @Override
+    public String readTemplate(String name) {
+        if (templates == null) {
+            return super.readTemplate(name);
+        }
+        return templates.read(name, super::readTemplate);
+    }
+
+    /**
+     * The config, with the given kinds of templates hidden from the generator. The models and
+     * operations are still processed, but not rendered.
+     */
+    @SafeVarargs
+    static CodegenConfig withoutTemplates(CodegenConfig config, List<String>... templates) {
+        Set<String> hidden = new HashSet<String>();
+        for (List<String> names : templates) {
+            hidden.addAll(names);
+        }
+
+        return (CodegenConfig) Proxy.newProxyInstance(CodegenConfig.class.getClassLoader(),
+                new Class<?>[] { CodegenConfig.class }, (proxy, method, args) -> {
+                    if (hidden.contains(method.getName()) && method.getParameterCount() == 0) {
+                        return new HashMap<String, String>();
+                    }
+                    try {
+                        return method.invoke(config, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -1,16 +1,76 @@
 package com.irl.openapi.generator.plugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.inject.Inject;
+
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkerExecutor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-import io.swagger.codegen.ClientOptInput;
-import io.swagger.codegen.DefaultGenerator;
-import io.swagger.codegen.config.CodegenConfigurator;
+@CacheableTask
+public abstract class CodegenTask extends DefaultTask {
 
-public class CodegenTask extends DefaultTask {
+    private static final String CODEGEN_PROPERTIES = "openapi-codegen.properties";
+
+    static final String CODEGEN_VERSION = loadCodegenVersion();
 
     private CodegenConfigurationExtension extension;
 
+    /**
+     * The build scan extension, when a build scan plugin is applied. Not kept in the
+     * configuration cache, so the values are published only when the task graph is configured.
+     */
+    private transient Object buildScan;
+
+    public CodegenTask() {
+        getIndexFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("openapi-codegen/" + getName() + "/generation-index.bin"));
+        getReportFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("reports/openapi-codegen/" + getName() + ".json"));
+        getReferencesFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("openapi-codegen/" + getName() + "/spec-references.txt"));
+        getCodeSizeFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("openapi-codegen/" + getName() + "/code-size.json"));
+    }
+
+    /**
+     * The swagger-codegen version bundled with the plugin. Part of the build cache key, so outputs
+     * generated by another codegen release are never reused.
+     */
+    @Input
+    public String getCodegenVersion() {
+        return CODEGEN_VERSION;
+    }
+
+    /**
+     * The effective generator configuration. Its properties are the inputs and the output
+     * directory of this task, so unchanged specs and options leave the task up-to-date.
+     */
+    @Nested
     public CodegenConfigurationExtension getExtension() {
         return extension;
     }
@@ -19,49 +79,136 @@ public class CodegenTask extends DefaultTask {
         this.extension = extension;
     }
 
-    @TaskAction
-    public void generate() {
-        if (extension == null) {
-            extension = this.getExtensions().findByType(CodegenConfigurationExtension.class);
+    /**
+     * The spec and the files it references through relative {@code $ref}s, transitively. When
+     * nothing but these files changed, the generation index tells which models and apis to
+     * regenerate.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getSpecFiles() {
+        File inputSpec = extension.getInputSpec().getAsFile().getOrNull();
+        if (inputSpec == null) {
+            return getObjects().fileCollection();
         }
-
-        execute(extension);
+        return getObjects().fileCollection().from(getProviders().of(SpecFilesSource.class, source -> {
+            source.getParameters().getSpecs().from(inputSpec);
+            source.getParameters().getReferencesFile().set(getReferencesFile());
+        }));
     }
 
-    private void execute(CodegenConfigurationExtension extension) {
-		CodegenConfigurator configurator = extension.getCodegenConfigurator();
+    /**
+     * The references between the spec files of the last execution, so that unchanged files are
+     * not searched for references again.
+     */
+    @Internal
+    public abstract RegularFileProperty getReferencesFile();
+
+    /**
+     * The hashes of the schemas and apis of the last generation and the files they produced.
+     */
+    @LocalState
+    public abstract RegularFileProperty getIndexFile();
+
+    /**
+     * The timings and figures of the last generation. Not an output: cached timings would be
+     * meaningless.
+     */
+    @Internal
+    public abstract RegularFileProperty getReportFile();
+
+    /**
+     * Files, lines and bytes of the generated code per category, and the largest generated
+     * classes. Depends on the generated files only, so it is cached with them.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getCodeSizeFile();
+
+    @Internal
+    public abstract Property<SpecCacheService> getSpecCache();
+
+    @Internal
+    public abstract Property<TemplateCacheService> getTemplateCache();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
 
-		if (extension.getSkip()) {
-            // getLog().info("Code generation is skipped.");
-            // Even when no new sources are generated, the existing ones should
-            // still be compiled if needed.
-            // addCompileSourceRootIfConfigured();
+    @Inject
+    protected abstract ObjectFactory getObjects();
+
+    @Inject
+    protected abstract ProviderFactory getProviders();
+
+    void publishTo(Object buildScan) {
+        this.buildScan = buildScan;
+    }
+
+    @TaskAction
+    public void generate() {
+        if (extension.getSkip().get()) {
+            getCodeSizeFile().getAsFile().get().delete();
+            getLogger().info("Code generation is skipped.");
             return;
         }
 
+        // The generation options are scoped to the worker thread, so generations of several
+        // tasks can share the daemon. No classloader or process isolation: the spec and template
+        // caches are build services, which Gradle cannot hand to isolated work.
+        getWorkerExecutor().noIsolation().submit(CodegenWorkAction.class, parameters -> {
+            parameters.getConfiguration().set(extension.toSettings());
+            parameters.getSpecCache().set(getSpecCache());
+            parameters.getTemplateCache().set(getTemplateCache());
+            parameters.getSpecFiles().set(getSpecFiles().getFiles());
+            parameters.getIndexFile().set(getIndexFile());
+            parameters.getTaskName().set(getName());
+            parameters.getReportFile().set(getReportFile());
+            parameters.getCodeSizeFile().set(getCodeSizeFile());
+        });
 
-        final ClientOptInput input = configurator.toClientOptInput();
-        //final CodegenConfig config = input.getConfig();
-
-        /*if (configOptions != null) {
-            for (CliOption langCliOption : config.cliOptions()) {
-                if (configOptions.containsKey(langCliOption.getOpt())) {
-                    input.getConfig().additionalProperties()
-                            .put(langCliOption.getOpt(), configOptions.get(langCliOption.getOpt()));
-                }
-            }
-        }*/
+        if (buildScan != null) {
+            getWorkerExecutor().await();
+            publishReport();
+        }
+    }
 
+    /**
+     * Adds the figures of the report as custom values to the build scan.
+     */
+    private void publishReport() {
+        File reportFile = getReportFile().getAsFile().get();
+        Map<String, Object> report;
         try {
-            new DefaultGenerator().opts(input).generate();
-        } catch (Exception e) {
-            // Maven logs exceptions thrown by plugins only if invoked with -e
-            // I find it annoying to jump through hoops to get basic diagnostic information,
-            // so let's log it in any case:
-            //getLog().error(e);
-            //throw new MojoExecutionException(
-            //        "Code generation failed. See above for the full exception.");
+            report = new ObjectMapper().readValue(reportFile, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (IOException e) {
+            getLogger().info("Unable to read the generation report " + reportFile + ": " + e.getMessage());
+            return;
         }
 
+        Map<String, Object> values = new LinkedHashMap<String, Object>(report);
+        values.remove("task");
+        values.remove("spec");
+        Object phases = values.remove("phasesMillis");
+        if (phases instanceof Map) {
+            for (Map.Entry<?, ?> phase : ((Map<?, ?>) phases).entrySet()) {
+                values.put(phase.getKey() + "Millis", phase.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            InvokerHelper.invokeMethod(buildScan, "value",
+                    new Object[] { "openapi." + getName() + "." + value.getKey(), String.valueOf(value.getValue()) });
+        }
+    }
+
+    private static String loadCodegenVersion() {
+        Properties properties = new Properties();
+        try (InputStream in = CodegenTask.class.getResourceAsStream(CODEGEN_PROPERTIES)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read " + CODEGEN_PROPERTIES, e);
+        }
+        return properties.getProperty("swaggerCodegenVersion", "unknown");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.gradle.api.GradleException;
+import org.gradle.workers.WorkAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs one generation in a Gradle worker.
+ */
+public abstract class CodegenWorkAction implements WorkAction<CodegenWorkParameters> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CodegenWorkAction.class);
+
+    @Override
+    public void execute() {
+        CodegenSettings settings = getParameters().getConfiguration().get();
+        GenerationMetrics metrics = new GenerationMetrics(getParameters().getTaskName().get(), settings.getInputSpec());
+        try {
+            new SpecGeneration(settings, getParameters().getSpecCache().get(), getParameters().getTemplateCache().get())
+                    .run(getParameters().getIndexFile().getAsFile().get(), getParameters().getSpecFiles().get(),
+                            getParameters().getCodeSizeFile().getAsFile().get(), metrics);
+        } catch (Exception e) {
+            metrics.failed();
+            LOGGER.error("Code generation failed", e);
+            throw new GradleException("Code generation failed. See above for the full exception.", e);
+        } finally {
+            writeReport(metrics);
+        }
+    }
+
+    private void writeReport(GenerationMetrics metrics) {
+        File report = getParameters().getReportFile().getAsFile().get();
+        try {
+            metrics.write(report);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write the generation report " + report + ": " + e.getMessage());
+        }
+    }
+}
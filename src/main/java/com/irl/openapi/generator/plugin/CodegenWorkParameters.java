@@ -0,0 +1,30 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkParameters;
+
+public interface CodegenWorkParameters extends WorkParameters {
+
+    Property<CodegenSettings> getConfiguration();
+
+    Property<SpecCacheService> getSpecCache();
+
+    Property<TemplateCacheService> getTemplateCache();
+
+    /**
+     * The spec and the files it references.
+     */
+    ListProperty<File> getSpecFiles();
+
+    RegularFileProperty getIndexFile();
+
+    Property<String> getTaskName();
+
+    RegularFileProperty getReportFile();
+
+    RegularFileProperty getCodeSizeFile();
+}
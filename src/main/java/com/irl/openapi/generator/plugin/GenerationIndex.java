@@ -0,0 +1,405 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+
+/**
+ * Persisted result of the last generation. Holds a content hash for every component schema and
+ * for every api (the operations of one tag), together with the files each of them produced.
+ * <p>
+ * Stored in a compact binary form, with the hashes as raw bytes, since large specs produce
+ * thousands of files and the index is read and written on every generation.
+ */
+public class GenerationIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationIndex.class);
+
+    static final String SCHEMA = "schema:";
+
+    static final String API = "api:";
+
+    static final String OTHER = "other:";
+
+    private static final int MAGIC = 0x4F414749;
+
+    private static final int VERSION = 2;
+
+    private static final String[] SHAPE_FIELDS = { "type", "format", "enum", "items", "additionalProperties", "$ref" };
+
+    /**
+     * The {@link CodegenSettings#fingerprint() fingerprint} of the settings of the generation.
+     */
+    private String fingerprint;
+
+    /**
+     * A hash of the spec and the files it references.
+     */
+    private String specHash;
+
+    private Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+    /**
+     * Generated files that do not belong to a single schema or api, like supporting files.
+     */
+    private Map<String, String> otherFiles = new TreeMap<String, String>();
+
+    /**
+     * Whether the language groups the operations into apis by tag, so apis can be regenerated
+     * one by one.
+     */
+    private boolean apisByTag;
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getSpecHash() {
+        return specHash;
+    }
+
+    public void setSpecHash(String specHash) {
+        this.specHash = specHash;
+    }
+
+    public Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    public Map<String, String> getOtherFiles() {
+        return otherFiles;
+    }
+
+    public void setOtherFiles(Map<String, String> otherFiles) {
+        this.otherFiles = otherFiles;
+    }
+
+    public boolean isApisByTag() {
+        return apisByTag;
+    }
+
+    public void setApisByTag(boolean apisByTag) {
+        this.apisByTag = apisByTag;
+    }
+
+    /**
+     * All generated files with their content hash, by path relative to the output directory.
+     */
+    Map<String, String> allFiles() {
+        Map<String, String> files = new TreeMap<String, String>(otherFiles);
+        for (Entry entry : entries.values()) {
+            files.putAll(entry.getFiles());
+        }
+        return files;
+    }
+
+    /**
+     * The keys of the schemas and apis whose generated files were modified or deleted since they
+     * were generated, with {@link #OTHER} standing for the other files.
+     */
+    Set<String> modifiedEntries(File outputDir) throws IOException {
+        Set<String> modified = new TreeSet<String>();
+        if (modified(outputDir, otherFiles)) {
+            modified.add(OTHER);
+        }
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (modified(outputDir, entry.getValue().getFiles())) {
+                modified.add(entry.getKey());
+            }
+        }
+        return modified;
+    }
+
+    private static boolean modified(File outputDir, Map<String, String> files) throws IOException {
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            File generated = new File(outputDir, file.getKey());
+            if (!generated.isFile() || !file.getValue().equals(Hashing.sha256Hex(generated))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String schemaName(String key) {
+        return key.substring(SCHEMA.length());
+    }
+
+    static String apiName(String key) {
+        return key.substring(API.length());
+    }
+
+    /**
+     * Indexes the schemas and operations of a parsed spec. Must be called before the generator
+     * runs, the generator modifies the model.
+     */
+    static GenerationIndex of(OpenAPI openAPI, CodegenConfig config) {
+        GenerationIndex index = new GenerationIndex();
+
+        Map<String, ?> schemas = openAPI.getComponents() != null
+                ? openAPI.getComponents().getSchemas() : null;
+        if (schemas != null) {
+            for (Map.Entry<String, ?> schema : schemas.entrySet()) {
+                JsonNode node = Json.mapper().valueToTree(schema.getValue());
+
+                Entry entry = new Entry();
+                entry.setHash(Hashing.sha256Hex(node.toString()));
+                entry.setShape(Hashing.sha256Hex(shape(node).toString()));
+                entry.setInlineModels(containsInlineModel(node.get("properties"))
+                        || containsInlineModel(node.get("items"))
+                        || containsInlineModel(node.get("additionalProperties")));
+                for (JsonNode parent : node.path("allOf")) {
+                    String ref = parent.path("$ref").asText(null);
+                    if (ref != null) {
+                        entry.getParents().add(ref.substring(ref.lastIndexOf('/') + 1));
+                    }
+                }
+                index.entries.put(SCHEMA + schema.getKey(), entry);
+            }
+        }
+
+        Map<String, StringBuilder> apiContents = new HashMap<String, StringBuilder>();
+        if (openAPI.getPaths() != null) {
+            for (String path : new TreeSet<String>(openAPI.getPaths().keySet())) {
+                PathItem pathItem = openAPI.getPaths().get(path);
+                String pathParameters = pathItem.getParameters() != null
+                        ? Json.mapper().valueToTree(pathItem.getParameters()).toString() : "";
+
+                for (Map.Entry<PathItem.HttpMethod, Operation> operation : pathItem.readOperationsMap().entrySet()) {
+                    JsonNode node = Json.mapper().valueToTree(operation.getValue());
+                    for (String tag : SpecNames.tags(operation.getValue())) {
+                        String key = API + config.sanitizeTag(tag);
+                        Entry entry = index.entries.get(key);
+                        if (entry == null) {
+                            entry = new Entry();
+                            index.entries.put(key, entry);
+                            apiContents.put(key, new StringBuilder());
+                        }
+                        entry.setInlineModels(entry.isInlineModels() || containsInlineModel(node));
+                        apiContents.get(key).append(path).append(' ').append(operation.getKey())
+                                .append(pathParameters).append(node).append('\n');
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, StringBuilder> content : apiContents.entrySet()) {
+            index.entries.get(content.getKey()).setHash(Hashing.sha256Hex(content.getValue().toString()));
+        }
+
+        return index;
+    }
+
+    /**
+     * The parts of a schema that decide how other models refer to it, e.g. whether it is an alias
+     * of an array or a primitive type.
+     */
+    private static JsonNode shape(JsonNode schema) {
+        ObjectNode shape = Json.mapper().createObjectNode();
+        for (String field : SHAPE_FIELDS) {
+            if (schema.has(field)) {
+                shape.set(field, schema.get(field));
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Whether the node contains an inline object schema, which the generator turns into a model
+     * of its own with a generated name.
+     */
+    private static boolean containsInlineModel(JsonNode node) {
+        if (node == null) {
+            return false;
+        }
+        if (node.isObject() && node.has("properties")) {
+            return true;
+        }
+        Iterator<JsonNode> children = node.elements();
+        while (children.hasNext()) {
+            if (containsInlineModel(children.next())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static GenerationIndex read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.info("Ignoring generation index " + file + " of another plugin version");
+                return null;
+            }
+
+            GenerationIndex index = new GenerationIndex();
+            index.fingerprint = readHash(in);
+            index.specHash = readHash(in);
+            index.apisByTag = in.readBoolean();
+            for (int entries = in.readInt(); entries > 0; entries--) {
+                String key = in.readUTF();
+                Entry entry = new Entry();
+                entry.hash = readHash(in);
+                entry.shape = readHash(in);
+                entry.inlineModels = in.readBoolean();
+                for (int parents = in.readInt(); parents > 0; parents--) {
+                    entry.parents.add(in.readUTF());
+                }
+                readFiles(in, entry.files);
+                index.entries.put(key, entry);
+            }
+            readFiles(in, index.otherFiles);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Ignoring unreadable generation index " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    void write(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeHash(out, fingerprint);
+            writeHash(out, specHash);
+            out.writeBoolean(apisByTag);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeHash(out, entry.getValue().hash);
+                writeHash(out, entry.getValue().shape);
+                out.writeBoolean(entry.getValue().inlineModels);
+                out.writeInt(entry.getValue().parents.size());
+                for (String parent : entry.getValue().parents) {
+                    out.writeUTF(parent);
+                }
+                writeFiles(out, entry.getValue().files);
+            }
+            writeFiles(out, otherFiles);
+        }
+    }
+
+    private static String readHash(DataInputStream in) throws IOException {
+        int length = in.readUnsignedByte();
+        if (length == 0) {
+            return null;
+        }
+        byte[] hash = new byte[length];
+        in.readFully(hash);
+        return Hashing.toHex(hash);
+    }
+
+    private static void writeHash(DataOutputStream out, String hash) throws IOException {
+        if (hash == null) {
+            out.writeByte(0);
+            return;
+        }
+        byte[] bytes = Hashing.fromHex(hash);
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void readFiles(DataInputStream in, Map<String, String> files) throws IOException {
+        for (int count = in.readInt(); count > 0; count--) {
+            String path = in.readUTF();
+            files.put(path, readHash(in));
+        }
+    }
+
+    private static void writeFiles(DataOutputStream out, Map<String, String> files) throws IOException {
+        out.writeInt(files.size());
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            out.writeUTF(file.getKey());
+            writeHash(out, file.getValue());
+        }
+    }
+
+    public static class Entry {
+
+        private String hash;
+
+        private String shape;
+
+        private boolean inlineModels;
+
+        private Set<String> parents = new TreeSet<String>();
+
+        /**
+         * Generated files with their content hash, by path relative to the output directory.
+         */
+        private Map<String, String> files = new TreeMap<String, String>();
+
+        public String getHash() {
+            return hash;
+        }
+
+        public void setHash(String hash) {
+            this.hash = hash;
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        public void setShape(String shape) {
+            this.shape = shape;
+        }
+
+        public boolean isInlineModels() {
+            return inlineModels;
+        }
+
+        public void setInlineModels(boolean inlineModels) {
+            this.inlineModels = inlineModels;
+        }
+
+        public Set<String> getParents() {
+            return parents;
+        }
+
+        public void setParents(Set<String> parents) {
+            this.parents = parents;
+        }
+
+        public Map<String, String> getFiles() {
+            return files;
+        }
+
+        public void setFiles(Map<String, String> files) {
+            this.files = files;
+        }
+    }
+}
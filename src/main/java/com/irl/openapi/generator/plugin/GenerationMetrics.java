@@ -0,0 +1,165 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.PathItem;
+
+/**
+ * Timings and figures of one generation, written as a JSON report.
+ * <p>
+ * The peak heap delta is the largest used heap sampled during the generation minus the heap used
+ * when it started. The peak usage of the memory pools is not reset, as other tools in the daemon
+ * may read it. Short spikes between two samples are missed, while the heap is shared by
+ * everything running in the daemon, so the figure is an estimate rather than a bound.
+ */
+public class GenerationMetrics {
+
+    private static final long HEAP_SAMPLE_MILLIS = 10;
+
+    private static final ScheduledExecutorService HEAP_SAMPLER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "openapi-codegen-heap-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private String task;
+
+    private String spec;
+
+    private String status = "success";
+
+    private boolean incremental;
+
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+
+    private int models;
+
+    private int operations;
+
+    private int filesWritten;
+
+    private int filesUnchanged;
+
+    private int filesDeleted;
+
+    private long bytesWritten;
+
+    private long peakHeapDeltaBytes;
+
+    private transient long heapAtStart;
+
+    private final transient AtomicLong peakHeap = new AtomicLong();
+
+    private transient ScheduledFuture<?> heapSampling;
+
+    GenerationMetrics(String task, File spec) {
+        this.task = task;
+        this.spec = spec != null ? spec.getPath() : null;
+        startHeapMeasurement();
+    }
+
+    /**
+     * Runs and times one phase of the generation.
+     */
+    <T> T phase(String name, Phase<T> action) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return action.run();
+        } finally {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            phases.merge(name, millis, Long::sum);
+        }
+    }
+
+    void spec(OpenAPI openAPI) {
+        if (openAPI.getComponents() != null && openAPI.getComponents().getSchemas() != null) {
+            models = openAPI.getComponents().getSchemas().size();
+        }
+        if (openAPI.getPaths() != null) {
+            for (PathItem pathItem : openAPI.getPaths().values()) {
+                operations += pathItem.readOperations().size();
+            }
+        }
+    }
+
+    void incremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    void failed() {
+        status = "failed";
+    }
+
+    void statistics(WriteStatistics statistics) {
+        filesWritten = statistics.getWritten();
+        filesUnchanged = statistics.getSkipped();
+        filesDeleted = statistics.getDeleted();
+        bytesWritten = statistics.getBytesWritten();
+        phases.put("fileIo", TimeUnit.NANOSECONDS.toMillis(statistics.getWriteNanos()));
+    }
+
+    private void startHeapMeasurement() {
+        heapAtStart = usedHeap();
+        peakHeap.set(heapAtStart);
+        heapSampling = HEAP_SAMPLER.scheduleAtFixedRate(this::sampleHeap,
+                HEAP_SAMPLE_MILLIS, HEAP_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sampleHeap() {
+        peakHeap.accumulateAndGet(usedHeap(), Math::max);
+    }
+
+    private void stopHeapMeasurement() {
+        heapSampling.cancel(false);
+        sampleHeap();
+        peakHeapDeltaBytes = Math.max(0, peakHeap.get() - heapAtStart);
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    void write(File report) throws IOException {
+        stopHeapMeasurement();
+        report.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, toMap());
+    }
+
+    /**
+     * The figures by name, in report order.
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        values.put("task", task);
+        values.put("spec", spec);
+        values.put("status", status);
+        values.put("incremental", incremental);
+        values.put("phasesMillis", phases);
+        values.put("models", models);
+        values.put("operations", operations);
+        values.put("filesWritten", filesWritten);
+        values.put("filesUnchanged", filesUnchanged);
+        values.put("filesDeleted", filesDeleted);
+        values.put("bytesWritten", bytesWritten);
+        values.put("peakHeapDeltaBytes", peakHeapDeltaBytes);
+        return values;
+    }
+
+    interface Phase<T> {
+
+        T run() throws Exception;
+    }
+}
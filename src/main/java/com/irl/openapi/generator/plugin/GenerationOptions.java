@@ -0,0 +1,130 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import io.swagger.codegen.CodegenConstants;
+
+/**
+ * The generation switches of one generator run.
+ * <p>
+ * swagger-codegen reads these switches from system properties. Instead of writing them to the
+ * JVM-wide properties, they are applied only to the thread that runs the generation, so several
+ * generations can run concurrently in one daemon.
+ */
+public class GenerationOptions implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Property values by name. A {@code null} value means the property is cleared.
+     */
+    private final Map<String, String> properties = new LinkedHashMap<String, String>();
+
+    private boolean renderModels = true;
+
+    /**
+     * Generate the apis, or not at all when {@code null}. A comma separated list of api names, or
+     * empty for all apis.
+     */
+    public GenerationOptions apis(String apis) {
+        properties.put(CodegenConstants.APIS, apis);
+        return this;
+    }
+
+    /**
+     * Generate the models, or not at all when {@code null}. A comma separated list of model
+     * names, or empty for all models.
+     */
+    public GenerationOptions models(String models) {
+        properties.put(CodegenConstants.MODELS, models);
+        return this;
+    }
+
+    /**
+     * Generate the supporting files, or not at all when {@code null}. A comma separated list of
+     * file names, or empty for all files.
+     */
+    public GenerationOptions supportingFiles(String supportingFiles) {
+        properties.put(CodegenConstants.SUPPORTING_FILES, supportingFiles);
+        return this;
+    }
+
+    public GenerationOptions modelTests(Boolean modelTests) {
+        properties.put(CodegenConstants.MODEL_TESTS, String.valueOf(modelTests));
+        return this;
+    }
+
+    public GenerationOptions modelDocs(Boolean modelDocs) {
+        properties.put(CodegenConstants.MODEL_DOCS, String.valueOf(modelDocs));
+        return this;
+    }
+
+    public GenerationOptions apiTests(Boolean apiTests) {
+        properties.put(CodegenConstants.API_TESTS, String.valueOf(apiTests));
+        return this;
+    }
+
+    public GenerationOptions apiDocs(Boolean apiDocs) {
+        properties.put(CodegenConstants.API_DOCS, String.valueOf(apiDocs));
+        return this;
+    }
+
+    public GenerationOptions withXml(Boolean withXml) {
+        properties.put(CodegenConstants.WITH_XML, String.valueOf(withXml));
+        return this;
+    }
+
+    /**
+     * Render the models, or only process them, e.g. for api templates that use the models.
+     */
+    public GenerationOptions renderModels(boolean renderModels) {
+        this.renderModels = renderModels;
+        return this;
+    }
+
+    /**
+     * Any other system property the generator or the language should see.
+     */
+    public GenerationOptions systemProperty(String key, String value) {
+        properties.put(key, value);
+        return this;
+    }
+
+    public String getApis() {
+        return properties.get(CodegenConstants.APIS);
+    }
+
+    public String getModels() {
+        return properties.get(CodegenConstants.MODELS);
+    }
+
+    public String getSupportingFiles() {
+        return properties.get(CodegenConstants.SUPPORTING_FILES);
+    }
+
+    public boolean isRenderModels() {
+        return renderModels;
+    }
+
+    public GenerationOptions copy() {
+        GenerationOptions copy = new GenerationOptions();
+        copy.properties.putAll(properties);
+        copy.renderModels = renderModels;
+        return copy;
+    }
+
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * Runs the action with these options visible as system properties on the current thread.
+     */
+    public <T> T apply(Supplier<T> action) {
+        return ScopedSystemProperties.with(properties, action);
+    }
+}
@@ -0,0 +1,107 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.config.CodegenConfigurator;
+
+/**
+ * Warms up the generator of a language in the background, while the build is still being
+ * configured: runs a generation of a tiny spec into a temporary directory, which loads the
+ * generator classes, fills the {@link TemplateCacheService} with the bundled templates of the
+ * language and gives the JIT a first pass over the generator.
+ * <p>
+ * The plugin classes, and with them the generator classes, stay loaded for as long as the daemon
+ * keeps the build script classpath, so every language is warmed up once per daemon.
+ */
+public abstract class GeneratorWarmupService implements BuildService<BuildServiceParameters.None> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeneratorWarmupService.class);
+
+    private static final String WARMUP_SPEC = "openapi: 3.0.1\n"
+            + "info:\n  title: warmup\n  version: '1'\n"
+            + "paths:\n"
+            + "  /items/{id}:\n"
+            + "    get:\n"
+            + "      tags: [items]\n"
+            + "      operationId: getItem\n"
+            + "      parameters:\n"
+            + "        - {name: id, in: path, required: true, schema: {type: string}}\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: the item\n"
+            + "          content:\n"
+            + "            application/json:\n"
+            + "              schema: {$ref: '#/components/schemas/Item'}\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Item:\n"
+            + "      type: object\n"
+            + "      properties:\n"
+            + "        id: {type: string}\n"
+            + "        count: {type: integer, format: int32}\n";
+
+    private static final Set<String> LANGUAGES = ConcurrentHashMap.newKeySet();
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "openapi-codegen-warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * Starts warming up the generator of the language, unless it already was.
+     */
+    public void warmUp(String language, TemplateCacheService templateCache) {
+        if (language == null || !LANGUAGES.add(language)) {
+            return;
+        }
+
+        EXECUTOR.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                generate(language, templateCache);
+                LOGGER.debug("Warmed up the " + language + " generator in "
+                        + (System.nanoTime() - start) / 1000000 + " ms");
+            } catch (Exception | LinkageError e) {
+                // only a warmup, the real generation reports the problem
+                LOGGER.debug("Unable to warm up the " + language + " generator", e);
+            }
+        });
+    }
+
+    private static void generate(String language, TemplateCacheService templateCache) throws IOException {
+        File directory = Files.createTempDirectory("openapi-codegen-warmup").toFile();
+        try {
+            File spec = new File(directory, "warmup.yaml");
+            Files.write(spec.toPath(), WARMUP_SPEC.getBytes(StandardCharsets.UTF_8));
+
+            CodegenConfigurator configurator = new CodegenConfigurator();
+            configurator.setLang(language);
+            configurator.setInputSpec(spec.getAbsolutePath());
+            configurator.setOutputDir(new File(directory, "generated").getAbsolutePath());
+
+            GenerationOptions options = new GenerationOptions();
+            ClientOptInput input = options.apply(
+                    () -> LanguageLoader.with(language, configurator::toClientOptInput));
+            new CodegenGenerator(options, templateCache.forDirectory(null), new WriteStatistics())
+                    .opts(input).generate();
+        } finally {
+            FileUtils.deleteQuietly(directory);
+        }
+    }
+}
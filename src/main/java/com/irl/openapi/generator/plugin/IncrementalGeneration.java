@@ -0,0 +1,319 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.swagger.codegen.CodegenConfig;
+
+/**
+ * Decides which models and apis have to be regenerated by comparing the spec with the
+ * {@link GenerationIndex} of the last run, and removes the files that are no longer generated.
+ * <p>
+ * The files of the last generation that are not generated again are deleted after every
+ * generation, also after a full one, so the output never keeps stale files of removed schemas or
+ * apis.
+ * <p>
+ * Falls back to a full generation when there is no usable index, or when a change can affect
+ * files outside of its own model or api: a schema or api being added or removed (supporting
+ * files list them), a schema changing its kind (e.g. from an object to an array alias) or a
+ * change to an inline schema, for which the generator invents model names.
+ * <p>
+ * Generated files that were edited or deleted since the last run are restored: their model or api
+ * is regenerated, a modified supporting file needs a full generation.
+ */
+class IncrementalGeneration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalGeneration.class);
+
+    /**
+     * Written by the generator only when it is missing, so later generations do not report it.
+     */
+    private static final String IGNORE_FILE = ".swagger-codegen-ignore";
+
+    private final GenerationIndex previous;
+
+    /**
+     * The keys of the entries of the previous index whose files were modified since, null if the
+     * previous index cannot be used.
+     */
+    private final Set<String> modified;
+
+    private final GenerationIndex current;
+
+    private final File outputDir;
+
+    private final Set<String> changed = new TreeSet<String>();
+
+    private boolean full;
+
+    /**
+     * @param previous the index of the last generation, if any
+     * @param modified the {@link GenerationIndex#modifiedEntries(File) modified entries} of the
+     *        last generation if it had the same settings, so its index can be used to regenerate
+     *        the changed models and apis only, and the modified ones. Null otherwise, then the
+     *        index is only used to delete the files that are no longer generated.
+     */
+    IncrementalGeneration(GenerationIndex previous, Set<String> modified, GenerationIndex current, File outputDir) {
+        this.previous = previous;
+        this.modified = modified;
+        this.current = current;
+        this.outputDir = outputDir;
+
+        plan();
+    }
+
+    boolean isFull() {
+        return full;
+    }
+
+    private void plan() {
+        // supporting files are only rendered by a full generation
+        if (previous == null || modified == null || modified.contains(GenerationIndex.OTHER)) {
+            full = true;
+            return;
+        }
+
+        Set<String> keys = new TreeSet<String>(previous.getEntries().keySet());
+        keys.addAll(current.getEntries().keySet());
+        for (String key : keys) {
+            GenerationIndex.Entry before = previous.getEntries().get(key);
+            GenerationIndex.Entry after = current.getEntries().get(key);
+            if (before != null && after != null && Objects.equals(before.getHash(), after.getHash())) {
+                if (modified.contains(key)) {
+                    changed.add(key);
+                }
+                continue;
+            }
+
+            if (before == null || after == null || before.isInlineModels() || after.isInlineModels()
+                    || !Objects.equals(before.getShape(), after.getShape())) {
+                full = true;
+                return;
+            }
+
+            changed.add(key);
+        }
+
+        addInheritanceFamilies();
+    }
+
+    /**
+     * Parents and children are generated together (e.g. discriminator mappings), so a change to
+     * one schema of an allOf hierarchy regenerates the whole hierarchy.
+     */
+    private void addInheritanceFamilies() {
+        Map<String, String> roots = new HashMap<String, String>();
+        for (GenerationIndex index : Arrays.asList(previous, current)) {
+            for (Map.Entry<String, GenerationIndex.Entry> entry : index.getEntries().entrySet()) {
+                for (String parent : entry.getValue().getParents()) {
+                    roots.put(SpecNames.root(roots, entry.getKey()), SpecNames.root(roots, GenerationIndex.SCHEMA + parent));
+                }
+            }
+        }
+
+        Set<String> changedRoots = new HashSet<String>();
+        for (String key : changed) {
+            changedRoots.add(SpecNames.root(roots, key));
+        }
+        for (String key : new TreeSet<String>(roots.keySet())) {
+            if (changedRoots.contains(SpecNames.root(roots, key)) && current.getEntries().containsKey(key)) {
+                changed.add(key);
+            }
+        }
+    }
+
+    /**
+     * The generator runs regenerating the changed models and apis: the options themselves for a
+     * full generation, nothing if no model or api changed. The changed apis are rendered by a run
+     * of their own, which processes all models without rendering them, since the api templates
+     * may use any model.
+     */
+    List<GenerationOptions> restrict(GenerationOptions options) {
+        if (full) {
+            return Collections.singletonList(options);
+        }
+
+        // The set of models and apis did not change. Supporting files are rendered from all
+        // models and apis, so a restricted generation must not overwrite them.
+        List<GenerationOptions> runs = new ArrayList<GenerationOptions>();
+        Set<String> models = new TreeSet<String>();
+        if (options.getModels() != null && options.isRenderModels()) {
+            models = names(GenerationIndex.SCHEMA);
+            if (isNotEmpty(options.getModels())) {
+                models.retainAll(Arrays.asList(options.getModels().split(",")));
+            }
+            if (!models.isEmpty()) {
+                runs.add(options.copy()
+                        .models(StringUtils.join(models, ","))
+                        .apis(null)
+                        .supportingFiles(null));
+            }
+        }
+
+        Set<String> apis = new TreeSet<String>();
+        if (options.getApis() != null) {
+            apis = names(GenerationIndex.API);
+            if (!apis.isEmpty()) {
+                runs.add(options.copy()
+                        .apis(previous.isApisByTag() ? StringUtils.join(apis, ",") : options.getApis())
+                        .supportingFiles(null)
+                        .modelTests(false)
+                        .modelDocs(false)
+                        .renderModels(false));
+            }
+        }
+
+        LOGGER.info("Regenerating changed models " + models + " and apis " + apis);
+
+        return runs;
+    }
+
+    private Set<String> names(String prefix) {
+        Set<String> names = new TreeSet<String>();
+        for (String key : changed) {
+            if (key.startsWith(prefix) && current.getEntries().containsKey(key)) {
+                names.add(key.substring(prefix.length()));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Records the generated files in the index and deletes the files that are no longer
+     * generated. Files that were modified since they were generated are kept.
+     *
+     * @return the index for the next run
+     */
+    GenerationIndex complete(List<File> generated, CodegenConfig config, boolean apisGenerated,
+            WriteStatistics statistics) throws IOException {
+        Map<String, String> owners = generated.isEmpty() ? new HashMap<String, String>() : owners(config);
+        Path outputPath = outputDir.toPath().toAbsolutePath().normalize();
+
+        Map<String, Map<String, String>> produced = new HashMap<String, Map<String, String>>();
+        Map<String, String> others = new TreeMap<String, String>();
+        for (File file : generated) {
+            Path path = file.toPath().toAbsolutePath().normalize();
+            if (!file.isFile() || !path.startsWith(outputPath)) {
+                continue;
+            }
+
+            String relativePath = outputPath.relativize(path).toString().replace(File.separatorChar, '/');
+            String hash = Hashing.sha256Hex(file);
+            String owner = owners.get(SpecNames.baseName(file.getName()));
+            if (owner == null) {
+                others.put(relativePath, hash);
+            } else {
+                if (!produced.containsKey(owner)) {
+                    produced.put(owner, new TreeMap<String, String>());
+                }
+                produced.get(owner).put(relativePath, hash);
+            }
+        }
+
+        boolean apisByTag = apisGenerated;
+        for (Map.Entry<String, GenerationIndex.Entry> entry : current.getEntries().entrySet()) {
+            String key = entry.getKey();
+            if (full || changed.contains(key)) {
+                Map<String, String> files = produced.get(key);
+                entry.getValue().setFiles(files != null ? files : new TreeMap<String, String>());
+            } else {
+                entry.getValue().setFiles(previous.getEntries().get(key).getFiles());
+            }
+            if (key.startsWith(GenerationIndex.API) && entry.getValue().getFiles().isEmpty()) {
+                apisByTag = false;
+            }
+        }
+
+        if (full) {
+            if (previous != null && previous.getOtherFiles().containsKey(IGNORE_FILE)
+                    && !others.containsKey(IGNORE_FILE) && new File(outputDir, IGNORE_FILE).isFile()) {
+                others.put(IGNORE_FILE, previous.getOtherFiles().get(IGNORE_FILE));
+            }
+            current.setOtherFiles(others);
+            current.setApisByTag(apisByTag);
+        } else {
+            current.getOtherFiles().putAll(previous.getOtherFiles());
+            current.getOtherFiles().putAll(others);
+            current.setApisByTag(previous.isApisByTag());
+        }
+
+        deleteOrphans(statistics);
+
+        return current;
+    }
+
+    /**
+     * Maps the file names (without extension) a model or an api generates to its index key.
+     */
+    private Map<String, String> owners(CodegenConfig config) {
+        Map<String, String> owners = new HashMap<String, String>();
+        for (String key : current.getEntries().keySet()) {
+            if (key.startsWith(GenerationIndex.SCHEMA)) {
+                String name = GenerationIndex.schemaName(key);
+                owners.put(config.toModelFilename(name), key);
+                owners.put(config.toModelTestFilename(name), key);
+                owners.put(config.toModelDocFilename(name), key);
+            } else {
+                String name = GenerationIndex.apiName(key);
+                owners.put(config.toApiFilename(name), key);
+                owners.put(config.toApiTestFilename(name), key);
+                owners.put(config.toApiDocFilename(name), key);
+            }
+        }
+        return owners;
+    }
+
+    private void deleteOrphans(WriteStatistics statistics) throws IOException {
+        if (previous == null) {
+            return;
+        }
+
+        Map<String, String> before;
+        Map<String, String> after;
+        if (full) {
+            before = previous.allFiles();
+            after = current.allFiles();
+        } else {
+            before = new TreeMap<String, String>();
+            after = new TreeMap<String, String>();
+            for (String key : changed) {
+                if (previous.getEntries().containsKey(key)) {
+                    before.putAll(previous.getEntries().get(key).getFiles());
+                }
+                if (current.getEntries().containsKey(key)) {
+                    after.putAll(current.getEntries().get(key).getFiles());
+                }
+            }
+        }
+
+        for (Map.Entry<String, String> orphan : before.entrySet()) {
+            if (after.containsKey(orphan.getKey())) {
+                continue;
+            }
+
+            File file = new File(outputDir, orphan.getKey());
+            if (file.isFile() && orphan.getValue().equals(Hashing.sha256Hex(file)) && file.delete()) {
+                statistics.fileDeleted();
+                LOGGER.info("Deleted orphaned file " + file);
+            }
+        }
+    }
+}
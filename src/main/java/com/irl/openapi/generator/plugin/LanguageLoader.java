@@ -0,0 +1,229 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenConfigLoader;
+
+/**
+ * Makes swagger-codegen load only the generator of the requested language.
+ * <p>
+ * swagger-codegen looks a language up by instantiating every {@link CodegenConfig} registered as
+ * a service until one has the requested name, for every generation. The plugin reads the class
+ * names from the service files instead and instantiates them one by one, those whose simple name
+ * contains the most words of the language name first, until it finds the language, usually with
+ * the first class. The classes of the languages found are kept for the daemon; the lookup of
+ * swagger-codegen then runs with a context classloader that registers only the class of the
+ * requested language, so only that generator is instantiated.
+ */
+final class LanguageLoader {
+
+    private static final String SERVICES = "META-INF/services/" + CodegenConfig.class.getName();
+
+    /**
+     * The generator class of the languages found so far, by language name.
+     */
+    private static final Map<String, String> CLASSES = new ConcurrentHashMap<String, String>();
+
+    /**
+     * The registered generator classes that were instantiated to find their language name.
+     */
+    private static final Set<String> INSTANTIATED = new HashSet<String>();
+
+    private static final Map<String, ClassLoader> LOADERS = new ConcurrentHashMap<String, ClassLoader>();
+
+    private static final String SOURCE_FOLDER = "sourceFolder";
+
+    /**
+     * The default source folder of every language looked up, empty if it has none.
+     */
+    private static final Map<String, String> SOURCE_FOLDERS = new ConcurrentHashMap<String, String>();
+
+    private LanguageLoader() {
+    }
+
+    /**
+     * Runs the action, which looks up the given language.
+     */
+    static <T> T with(String language, Supplier<T> action) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader(language));
+        try {
+            return action.get();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * The folder the language writes its sources to by default, relative to the output directory,
+     * e.g. {@code src/gen/java} for {@code jaxrs-cxf-client}. Empty if the language has none,
+     * like the languages that do not generate java.
+     */
+    static String sourceFolder(String language) {
+        if (language == null) {
+            return "";
+        }
+        return SOURCE_FOLDERS.computeIfAbsent(language, name -> {
+            CodegenConfig config = with(name, () -> CodegenConfigLoader.forName(name));
+            for (Class<?> type = config.getClass(); type != null; type = type.getSuperclass()) {
+                try {
+                    Field field = type.getDeclaredField(SOURCE_FOLDER);
+                    field.setAccessible(true);
+                    Object sourceFolder = field.get(config);
+                    return sourceFolder != null ? sourceFolder.toString() : "";
+                } catch (NoSuchFieldException e) {
+                    // declared by a superclass, if at all
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return "";
+        });
+    }
+
+    private static ClassLoader loader(String language) {
+        ClassLoader plugin = LanguageLoader.class.getClassLoader();
+        if (language == null) {
+            return plugin;
+        }
+
+        String className = CLASSES.containsKey(language) ? CLASSES.get(language) : find(plugin, language);
+        if (className == null) {
+            // e.g. the class name of a custom generator, looked up by swagger-codegen itself
+            return plugin;
+        }
+        return LOADERS.computeIfAbsent(className, name -> new SingleLanguageClassLoader(plugin, name));
+    }
+
+    /**
+     * Instantiates the registered generators not instantiated yet, the likely ones first, until
+     * one has the given name.
+     */
+    private static synchronized String find(ClassLoader loader, String language) {
+        if (CLASSES.containsKey(language)) {
+            return CLASSES.get(language);
+        }
+
+        List<String> classNames = new ArrayList<String>(serviceClassNames(loader));
+        classNames.removeAll(INSTANTIATED);
+        String[] words = language.toLowerCase(Locale.ROOT).split("[^a-z0-9]+");
+        classNames.sort(Comparator.comparingInt((String className) -> -matchingWords(className, words)));
+        for (String className : classNames) {
+            INSTANTIATED.add(className);
+            try {
+                CodegenConfig config = (CodegenConfig) Class.forName(className, true, loader)
+                        .getConstructor().newInstance();
+                CLASSES.put(config.getName(), className);
+                if (language.equals(config.getName())) {
+                    return className;
+                }
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // like a broken service entry, swagger-codegen reports the language as not found
+            }
+        }
+        return null;
+    }
+
+    private static int matchingWords(String className, String[] words) {
+        String simpleName = className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1)
+                .toLowerCase(Locale.ROOT);
+        int matching = 0;
+        for (String word : words) {
+            if (!word.isEmpty() && simpleName.contains(word)) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * The classes registered in the {@code CodegenConfig} service files, without instantiating
+     * them.
+     */
+    private static Set<String> serviceClassNames(ClassLoader loader) {
+        Set<String> classNames = new LinkedHashSet<String>();
+        try {
+            for (URL services : Collections.list(loader.getResources(SERVICES))) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(services.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        String className = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                        if (!className.isEmpty()) {
+                            classNames.add(className);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return classNames;
+    }
+
+    /**
+     * Delegates everything to the plugin classloader, except for the registered generators,
+     * which are just the one class.
+     */
+    private static final class SingleLanguageClassLoader extends ClassLoader {
+
+        private final URL services;
+
+        private SingleLanguageClassLoader(ClassLoader parent, String className) {
+            super(parent);
+            byte[] content = (className + '\n').getBytes(StandardCharsets.UTF_8);
+            try {
+                services = new URL(null, "openapi-codegen:" + SERVICES, new URLStreamHandler() {
+                    @Override
+                    protected URLConnection openConnection(URL url) {
+                        return new URLConnection(url) {
+                            @Override
+                            public void connect() {
+                            }
+
+                            @Override
+                            public InputStream getInputStream() {
+                                return new ByteArrayInputStream(content);
+                            }
+                        };
+                    }
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            if (SERVICES.equals(name)) {
+                return Collections.enumeration(Collections.singletonList(services));
+            }
+            return super.getResources(name);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.irl.openapi.generator.plugin;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,38 +20,161 @@ public class OpenapiCodegenPlugin implements Plugin<Project> {
 
     private static Logger LOGGER = LoggerFactory.getLogger(OpenapiCodegenPlugin.class);
 
+    private static final int SPEC_CACHE_SIZE = 32;
+
+    private static final int TEMPLATE_CACHE_SIZE = 2000;
+
+    private static final String SPEC_DOWNLOAD_CACHE = "caches/openapi-codegen/specs";
+
+    private static final String WARMUP_PROPERTY = "openapiCodegen.warmup";
+
     @Override
     public void apply(Project project) {
-        NamedDomainObjectContainer<OpenapiContainer> openapiConfigContainer = project.container(OpenapiContainer.class);
+        NamedDomainObjectContainer<OpenapiContainer> openapiConfigContainer = project.container(OpenapiContainer.class,
+                name -> new OpenapiContainer(name, project.getObjects().newInstance(CodegenConfigurationExtension.class)));
         project.getExtensions().add("openapiSources", openapiConfigContainer);
 
-        Map<String, Object> taskOptions = new HashMap<String, Object>();
-        taskOptions.put("description", "Generate all openapi sources.");
-        Task taskGroup = project.task(taskOptions, "openapiGenerateSources");
+        TaskProvider<CodeSizeReportTask> taskGroup = project.getTasks().register("openapiGenerateSources",
+                CodeSizeReportTask.class, task -> {
+                    task.setDescription("Generate all openapi sources.");
+                });
+        TaskProvider<Task> validateGroup = project.getTasks().register("openapiValidateSources", task -> {
+            task.setDescription("Validates all openapi specifications.");
+        });
+
+        Provider<SpecCacheService> specCache = project.getGradle().getSharedServices()
+                .registerIfAbsent("openapiSpecCache", SpecCacheService.class, spec -> {
+                    spec.getParameters().getMaxEntries().set(SPEC_CACHE_SIZE);
+                });
+        Provider<TemplateCacheService> templateCache = project.getGradle().getSharedServices()
+                .registerIfAbsent("openapiTemplateCache", TemplateCacheService.class, spec -> {
+                    spec.getParameters().getMaxEntries().set(TEMPLATE_CACHE_SIZE);
+                });
 
-        openapiConfigContainer.all((delegate) -> {
-            String name = delegate.getName();
-            CodegenTask task = getSourceTask(project, taskGroup, delegate, name);
+        Provider<GeneratorWarmupService> warmup = project.getGradle().getSharedServices()
+                .registerIfAbsent("openapiGeneratorWarmup", GeneratorWarmupService.class, spec -> {
+                });
+        boolean warmupEnabled = Boolean.parseBoolean(String.valueOf(project.findProperty(WARMUP_PROPERTY)));
+
+        // Runs only for the tasks that are realized, i.e. the tasks in the task graph
+        project.getTasks().withType(CodegenTask.class).configureEach(codegenTask -> {
+            codegenTask.getSpecCache().set(specCache);
+            codegenTask.getTemplateCache().set(templateCache);
+
+            Object buildScan = project.getRootProject().getExtensions().findByName("buildScan");
+            if (buildScan != null) {
+                codegenTask.publishTo(buildScan);
+            }
+        });
+
+        project.getTasks().withType(CodegenBatchTask.class).configureEach(batchTask -> {
+            batchTask.getSpecCache().set(specCache);
+            batchTask.getTemplateCache().set(templateCache);
+
+            if (warmupEnabled) {
+                // the build script sets the language after this action, so the batch is warmed up
+                // once the task graph is built
+                project.getGradle().getTaskGraph().whenReady(graph -> {
+                    if (graph.hasTask(batchTask)) {
+                        warmup.get().warmUp(batchTask.getExtension().getLanguage().getOrNull(), templateCache.get());
+                    }
+                });
+            }
+        });
 
-            delegate.codeTask = task;
+        openapiConfigContainer.configureEach((delegate) -> {
+            TaskProvider<CodegenTask> task = getSourceTask(project, taskGroup, validateGroup, delegate, delegate.getName());
+            if (warmupEnabled) {
+                // the task is realized when the task graph is built, so the generator is warmed up
+                // while the tasks before it run
+                task.configure(codegenTask -> warmup.get().warmUp(delegate.code.getLanguage().getOrNull(), templateCache.get()));
+            }
         });
     }
 
-    private CodegenTask getSourceTask(Project project, Task taskGroup, OpenapiContainer delegate, String name) {
+    private TaskProvider<CodegenTask> getSourceTask(Project project, TaskProvider<CodeSizeReportTask> taskGroup,
+            TaskProvider<Task> validateGroup, OpenapiContainer delegate, String name) {
         String configName = name.substring(0, 1).toUpperCase() + name.substring(1);
 
         String taskName = "openapiGenerate" + configName + "Sources";
-        Map<String, Object> options = new HashMap<String, Object>();
-        options.put("type", CodegenTask.class);
-        options.put("description", "Generates a source code from " + delegate.getName() + " the OpenAPI specification");
+        TaskProvider<CodegenTask> task = project.getTasks().register(taskName, CodegenTask.class, codegenTask -> {
+            codegenTask.setDescription("Generates a source code from " + delegate.getName() + " the OpenAPI specification");
+            codegenTask.setExtension(delegate.code);
+        });
 
-        CodegenTask task = (CodegenTask) project.task(options, taskName);
-        task.setExtension(new CodegenConfigurationExtension());
+        TaskProvider<SpecValidationTask> validate = project.getTasks().register("openapiValidate" + configName,
+                SpecValidationTask.class, validationTask -> {
+                    validationTask.setDescription("Validates the OpenAPI specification of " + delegate.getName());
+                    validationTask.getSpec().set(delegate.code.getInputSpec());
+                    // the spec of a configuration file is validated by the generator
+                    validationTask.onlyIf(t -> !delegate.code.getSkip().get() && delegate.code.getInputSpec().isPresent());
+                });
+        task.configure(codegenTask -> codegenTask.dependsOn((Callable<Object>) () ->
+                delegate.code.getValidateSpec().get() ? validate : Collections.emptyList()));
 
-        taskGroup.dependsOn(task);
+        taskGroup.configure(group -> {
+            group.dependsOn(task);
+            group.getCodeSizeFiles().from(task.flatMap(CodegenTask::getCodeSizeFile));
+        });
+        validateGroup.configure(group -> group.dependsOn(validate));
+        addSourceRoot(project, task, delegate.code);
+        addSpecDownload(project, Arrays.asList(task, validate), configName, delegate.code);
 
-        LOGGER.trace("create openapi generator task: " + taskName);
+        LOGGER.trace("register openapi generator task: " + taskName);
 
         return task;
     }
-}
\ No newline at end of file
+
+    /**
+     * Registers the download of the spec from {@code inputSpecUrl}. The downloaded spec is the
+     * input spec, unless {@code inputSpec} is set as well.
+     */
+    private void addSpecDownload(Project project, List<TaskProvider<? extends Task>> tasks, String configName,
+            CodegenConfigurationExtension code) {
+        String taskName = "openapiDownload" + configName + "Spec";
+        TaskProvider<SpecDownloadTask> download = project.getTasks().register(taskName, SpecDownloadTask.class, downloadTask -> {
+            downloadTask.setDescription("Downloads the OpenAPI specification of " + configName);
+            downloadTask.getUrl().set(code.getInputSpecUrl());
+            downloadTask.getAuth().set(code.getAuth());
+            downloadTask.getOffline().set(project.getGradle().getStartParameter().isOffline());
+            downloadTask.getCacheDirectory().set(new File(project.getGradle().getGradleUserHomeDir(), SPEC_DOWNLOAD_CACHE));
+            downloadTask.getSpecFile().set(project.getLayout().getBuildDirectory().file(code.getInputSpecUrl()
+                    .map(url -> "openapi-codegen/" + taskName + "/" + specFileName(url))));
+        });
+
+        code.getInputSpec().convention(code.getInputSpecUrl().flatMap(url -> download.flatMap(SpecDownloadTask::getSpecFile)));
+        for (TaskProvider<? extends Task> task : tasks) {
+            task.configure(specTask -> specTask.dependsOn((Callable<Object>) () ->
+                    code.getInputSpecUrl().isPresent() ? download : Collections.emptyList()));
+        }
+    }
+
+    /**
+     * The file name of the spec in the URL, which tells the parser its format.
+     */
+    private static String specFileName(String url) {
+        String path = url.replaceAll("[?#].*", "");
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return name.isEmpty() ? "spec" : name;
+    }
+
+    /**
+     * Adds the generated sources to the configured source set. The directory and the dependency
+     * on the generator task are only resolved for that source set, so its compile task waits for
+     * the specs it uses and nothing else does.
+     */
+    private void addSourceRoot(Project project, TaskProvider<CodegenTask> task, CodegenConfigurationExtension code) {
+        project.getPluginManager().withPlugin("java", plugin -> {
+            SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
+            sourceSets.configureEach(sourceSet -> {
+                Callable<Boolean> compiled = () -> code.getAddCompileSourceRoot().get()
+                        && code.getOutput().isPresent()
+                        && sourceSet.getName().equals(code.getSourceSet().get());
+
+                sourceSet.getJava().srcDir(project.files((Callable<Object>) () -> compiled.call()
+                        ? code.getSourceDirectory() : Collections.emptyList())
+                        .builtBy((Callable<Object>) () -> compiled.call() ? task : Collections.emptyList()));
+            });
+        });
+    }
+}
@@ -9,24 +9,38 @@ public class OpenapiContainer {
 
     final String name;
 
-    public OpenapiContainer(String name) {
+    final CodegenConfigurationExtension code;
+
+    final SpecPreprocessing preprocessing;
+
+    public OpenapiContainer(String name, CodegenConfigurationExtension code) {
         this.name = name;
+        this.code = code;
+        this.preprocessing = new SpecPreprocessing(code.getPreprocessors());
     }
 
     public String getName() {
         return name;
     }
 
-    public CodegenTask codeTask;
+    public CodegenConfigurationExtension code(@DelegatesTo(CodegenConfigurationExtension.class) Closure<?> closure) {
+        closure.setDelegate(code);
+        closure.call();
+
+        return code;
+    }
 
-    public CodegenTask code(@DelegatesTo(CodegenTask.class) Closure<?> closure) {
-        closure.setDelegate(codeTask.getExtension());
+    /**
+     * Configures the steps transforming the parsed spec before the generation.
+     */
+    public SpecPreprocessing preprocess(@DelegatesTo(SpecPreprocessing.class) Closure<?> closure) {
+        closure.setDelegate(preprocessing);
         closure.call();
 
-        return codeTask;
+        return preprocessing;
     }
 
     void setSchema(File inputFile) {
-        codeTask.getExtension().setInputSpec(inputFile);
+        code.setInputSpec(inputFile);
     }
 }
@@ -0,0 +1,191 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Schema;
+
+/**
+ * Renders the models and apis of one spec on several threads.
+ * <p>
+ * A first, serial pass processes the whole spec but renders only the supporting files, which
+ * need every model and operation. It also yields the final model names (including the models the
+ * generator extracts from inline schemas) and the api names. The models and apis are then split
+ * into partitions that are rendered concurrently, each by its own generator working on its own
+ * copy of the spec. An {@code allOf} hierarchy always stays in one partition, because the
+ * generator links parents and children while processing the models. Every file is rendered by
+ * exactly one partition from the same input as in a serial run, so the output is identical.
+ */
+class ParallelGeneration {
+
+    private final int parallelism;
+
+    private final Function<GenerationOptions, ClientOptInput> inputs;
+
+    private final Function<GenerationOptions, CodegenGenerator> generators;
+
+    /**
+     * @param inputs creates a new input, with its own copy of the spec, for the given options
+     * @param generators creates a generator for the given options
+     */
+    ParallelGeneration(int parallelism, Function<GenerationOptions, ClientOptInput> inputs,
+            Function<GenerationOptions, CodegenGenerator> generators) {
+        this.parallelism = parallelism;
+        this.inputs = inputs;
+        this.generators = generators;
+    }
+
+    List<File> generate(ClientOptInput input, GenerationOptions options) {
+        GenerationOptions supportingOptions = options.copy()
+                .modelTests(false).modelDocs(false).apiTests(false).apiDocs(false);
+        input.config(CodegenGenerator.withoutTemplates(input.getConfig(),
+                CodegenGenerator.MODEL_TEMPLATES, CodegenGenerator.API_TEMPLATES));
+
+        CodegenGenerator supporting = generators.apply(supportingOptions);
+        supporting.opts(input);
+        List<File> files = new ArrayList<File>(supporting.generate());
+
+        List<Callable<List<File>>> partitions = new ArrayList<Callable<List<File>>>();
+        if (options.getModels() != null && options.isRenderModels()) {
+            for (Collection<String> models : modelPartitions(input.getOpenAPI(), options.getModels())) {
+                GenerationOptions partition = options.copy()
+                        .models(StringUtils.join(models, ","))
+                        .apis(null)
+                        .supportingFiles(null);
+                partitions.add(() -> render(partition));
+            }
+        }
+        if (options.getApis() != null) {
+            Set<String> apis = filter(supporting.processPaths(input.getOpenAPI().getPaths()).keySet(), options.getApis());
+            for (Collection<String> partitionApis : partition(apis)) {
+                // The api templates may use all models, so the models are processed but not rendered
+                GenerationOptions partition = options.copy()
+                        .apis(StringUtils.join(partitionApis, ","))
+                        .supportingFiles(null)
+                        .modelTests(false)
+                        .modelDocs(false)
+                        .renderModels(false);
+                partitions.add(() -> render(partition));
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<List<File>> partition : pool.invokeAll(partitions)) {
+                files.addAll(partition.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        return files;
+    }
+
+    private List<File> render(GenerationOptions options) {
+        return generators.apply(options).opts(inputs.apply(options)).generate();
+    }
+
+    /**
+     * Splits the models into partitions of about the same size, keeping each allOf hierarchy in
+     * one partition.
+     */
+    private List<Collection<String>> modelPartitions(OpenAPI openAPI, String models) {
+        Map<String, ?> schemas = openAPI.getComponents() != null
+                ? openAPI.getComponents().getSchemas() : null;
+        if (schemas == null) {
+            return Collections.emptyList();
+        }
+
+        Map<String, String> roots = new HashMap<String, String>();
+        for (Map.Entry<String, ?> schema : schemas.entrySet()) {
+            if (schema.getValue() instanceof ComposedSchema
+                    && ((ComposedSchema) schema.getValue()).getAllOf() != null) {
+                for (Schema<?> parent : ((ComposedSchema) schema.getValue()).getAllOf()) {
+                    if (parent.get$ref() != null) {
+                        String parentName = parent.get$ref().substring(parent.get$ref().lastIndexOf('/') + 1);
+                        roots.put(SpecNames.root(roots, schema.getKey()), SpecNames.root(roots, parentName));
+                    }
+                }
+            }
+        }
+
+        Map<String, Set<String>> families = new TreeMap<String, Set<String>>();
+        for (String name : filter(schemas.keySet(), models)) {
+            String root = SpecNames.root(roots, name);
+            if (!families.containsKey(root)) {
+                families.put(root, new TreeSet<String>());
+            }
+            families.get(root).add(name);
+        }
+
+        List<Set<String>> sorted = new ArrayList<Set<String>>(families.values());
+        sorted.sort((a, b) -> b.size() - a.size());
+
+        List<Collection<String>> partitions = new ArrayList<Collection<String>>();
+        for (int i = 0; i < Math.min(parallelism, sorted.size()); i++) {
+            partitions.add(new TreeSet<String>());
+        }
+        for (Set<String> family : sorted) {
+            Collection<String> smallest = partitions.get(0);
+            for (Collection<String> partition : partitions) {
+                if (partition.size() < smallest.size()) {
+                    smallest = partition;
+                }
+            }
+            smallest.addAll(family);
+        }
+        return partitions;
+    }
+
+    private List<Collection<String>> partition(Set<String> names) {
+        List<Collection<String>> partitions = new ArrayList<Collection<String>>();
+        for (int i = 0; i < Math.min(parallelism, names.size()); i++) {
+            partitions.add(new TreeSet<String>());
+        }
+        int i = 0;
+        for (String name : names) {
+            partitions.get(i++ % partitions.size()).add(name);
+        }
+        return partitions;
+    }
+
+    /**
+     * The names, restricted to the comma separated list if it is not empty.
+     */
+    private static Set<String> filter(Collection<String> names, String list) {
+        Set<String> filtered = new TreeSet<String>(names);
+        if (isNotEmpty(list)) {
+            filtered.retainAll(Arrays.asList(list.split(",")));
+        }
+        return filtered;
+    }
+}
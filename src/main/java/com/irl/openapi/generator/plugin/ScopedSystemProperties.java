@@ -0,0 +1,418 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * System properties with a per-thread overlay.
+ * <p>
+ * While a thread runs inside {@link #with(Map, Supplier)}, every read it makes sees the system
+ * properties combined with its overlay, and every write it makes goes to the overlay. All other
+ * threads read and write the regular system properties, which this object delegates to without
+ * copying them. The regular properties are installed again when the last scope ends. This lets
+ * swagger-codegen, which is configured through {@link System#getProperty(String)}, run several
+ * generations side by side in one JVM.
+ * <p>
+ * The switches cannot be handed to the generator instead: {@code DefaultGenerator} reads the
+ * lists of models, apis and supporting files with {@code System.getProperty} in private methods.
+ * <p>
+ * The plugin may be loaded by several classloaders in one daemon, each with its own copy of this
+ * class. A copy never replaces properties it did not install, it installs its wrapper on top of
+ * whatever is installed, and a wrapper left installed after its last scope, because another
+ * copy installed its own on top and restored it later, removes itself on the next read.
+ */
+final class ScopedSystemProperties extends Properties {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Object CLEARED = new Object();
+
+    /**
+     * The interned class name, the same object for the copies of this class in every classloader,
+     * so that no copy replaces the system properties while another one checks them.
+     */
+    private static final Object LOCK = "com.irl.openapi.generator.plugin.ScopedSystemProperties".intern();
+
+    /**
+     * Shared by all instances, so a scope stays visible even if the system properties are
+     * replaced while it is active.
+     */
+    private static final ThreadLocal<Map<Object, Object>> OVERLAY = new ThreadLocal<Map<Object, Object>>();
+
+    /**
+     * Changed under the lock, read without it to find an idle wrapper.
+     */
+    private static volatile int activeScopes;
+
+    private final Properties base;
+
+    private ScopedSystemProperties(Properties base) {
+        this.base = base;
+    }
+
+    /**
+     * Runs the action with the given properties set for the current thread only. A {@code null}
+     * value hides the property. Properties written by the action are discarded afterwards.
+     */
+    static <T> T with(Map<String, String> properties, Supplier<T> action) {
+        ScopedSystemProperties system = enter();
+        Map<Object, Object> previous = OVERLAY.get();
+        try {
+            Map<Object, Object> scope = previous == null
+                    ? new HashMap<Object, Object>()
+                    : new HashMap<Object, Object>(previous);
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                scope.put(entry.getKey(), entry.getValue() == null ? CLEARED : entry.getValue());
+            }
+
+            OVERLAY.set(scope);
+            return action.get();
+        } finally {
+            if (previous == null) {
+                OVERLAY.remove();
+            } else {
+                OVERLAY.set(previous);
+            }
+            exit(system);
+        }
+    }
+
+    private static ScopedSystemProperties enter() {
+        synchronized (LOCK) {
+            // Checked on every call, the daemon may replace the system properties between builds
+            Properties current = System.getProperties();
+            ScopedSystemProperties system = current instanceof ScopedSystemProperties
+                    ? (ScopedSystemProperties) current
+                    : new ScopedSystemProperties(current);
+            if (system != current) {
+                System.setProperties(system);
+            }
+            activeScopes++;
+            return system;
+        }
+    }
+
+    private static void exit(ScopedSystemProperties system) {
+        synchronized (LOCK) {
+            activeScopes--;
+            system.uninstallIfIdle();
+        }
+    }
+
+    /**
+     * Installs the wrapped properties again if no scope is active and this wrapper is still the
+     * installed one. A wrapper of another copy of this class installed on top is left alone.
+     */
+    private void uninstallIfIdle() {
+        synchronized (LOCK) {
+            if (activeScopes == 0 && System.getProperties() == this) {
+                System.setProperties(base);
+            }
+        }
+    }
+
+    /**
+     * The properties as the current thread sees them: the system properties outside of a scope,
+     * or a copy with the overlay applied inside a scope.
+     */
+    private Properties view() {
+        Map<Object, Object> scope = OVERLAY.get();
+        if (scope == null) {
+            if (activeScopes == 0) {
+                uninstallIfIdle();
+            }
+            return base;
+        }
+
+        Properties view = new Properties();
+        synchronized (base) {
+            view.putAll(base);
+        }
+        for (Map.Entry<Object, Object> entry : scope.entrySet()) {
+            if (entry.getValue() == CLEARED) {
+                view.remove(entry.getKey());
+            } else {
+                view.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return view;
+    }
+
+    private <T> T read(Function<Properties, T> operation) {
+        return operation.apply(view());
+    }
+
+    /**
+     * Runs a write on the system properties outside of a scope. Inside a scope it runs on the
+     * current view, and every property it changes is recorded in the overlay.
+     */
+    private <T> T write(Function<Properties, T> operation) {
+        Map<Object, Object> scope = OVERLAY.get();
+        if (scope == null) {
+            return operation.apply(base);
+        }
+
+        Properties before = view();
+        Properties after = new Properties();
+        after.putAll(before);
+        T result = operation.apply(after);
+
+        Set<Object> keys = new HashSet<Object>(before.keySet());
+        keys.addAll(after.keySet());
+        for (Object key : keys) {
+            Object value = after.get(key);
+            if (!Objects.equals(before.get(key), value)) {
+                scope.put(key, value == null ? CLEARED : value);
+            }
+        }
+        return result;
+    }
+
+    private <T> Set<T> readOnly(Set<T> set) {
+        return OVERLAY.get() == null ? set : Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public String getProperty(String key) {
+        Map<Object, Object> scope = OVERLAY.get();
+        if (scope != null && scope.containsKey(key)) {
+            Object value = scope.get(key);
+            return value instanceof String ? (String) value : null;
+        }
+        if (scope == null && activeScopes == 0) {
+            uninstallIfIdle();
+        }
+        return base.getProperty(key);
+    }
+
+    @Override
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Map<Object, Object> scope = OVERLAY.get();
+        if (scope != null && scope.containsKey(key)) {
+            Object value = scope.get(key);
+            return value == CLEARED ? null : value;
+        }
+        if (scope == null && activeScopes == 0) {
+            uninstallIfIdle();
+        }
+        return base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        Object value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    public int size() {
+        return read(Properties::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read(Properties::isEmpty);
+    }
+
+    @Override
+    public Enumeration<Object> keys() {
+        return read(Properties::keys);
+    }
+
+    @Override
+    public Enumeration<Object> elements() {
+        return read(Properties::elements);
+    }
+
+    @Override
+    public Enumeration<?> propertyNames() {
+        return read(Properties::propertyNames);
+    }
+
+    @Override
+    public Set<String> stringPropertyNames() {
+        return read(Properties::stringPropertyNames);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return read(properties -> properties.contains(value));
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return read(properties -> properties.containsValue(value));
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        return readOnly(read(Properties::keySet));
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        return readOnly(read(Properties::entrySet));
+    }
+
+    @Override
+    public Collection<Object> values() {
+        Collection<Object> values = read(Properties::values);
+        return OVERLAY.get() == null ? values : Collections.unmodifiableCollection(values);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Object, ? super Object> action) {
+        view().forEach(action);
+    }
+
+    @Override
+    public Object setProperty(String key, String value) {
+        return put(key, value);
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        Objects.requireNonNull(value);
+        return write(properties -> properties.put(key, value));
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return write(properties -> properties.remove(key));
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return write(properties -> properties.remove(key, value));
+    }
+
+    @Override
+    public void putAll(Map<?, ?> values) {
+        write(properties -> {
+            properties.putAll(values);
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        write(properties -> {
+            properties.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public Object putIfAbsent(Object key, Object value) {
+        return write(properties -> properties.putIfAbsent(key, value));
+    }
+
+    @Override
+    public Object replace(Object key, Object value) {
+        return write(properties -> properties.replace(key, value));
+    }
+
+    @Override
+    public boolean replace(Object key, Object oldValue, Object newValue) {
+        return write(properties -> properties.replace(key, oldValue, newValue));
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+        write(properties -> {
+            properties.replaceAll(function);
+            return null;
+        });
+    }
+
+    @Override
+    public Object computeIfAbsent(Object key, Function<? super Object, ?> function) {
+        return write(properties -> properties.computeIfAbsent(key, function));
+    }
+
+    @Override
+    public Object computeIfPresent(Object key, BiFunction<? super Object, ? super Object, ?> function) {
+        return write(properties -> properties.computeIfPresent(key, function));
+    }
+
+    @Override
+    public Object compute(Object key, BiFunction<? super Object, ? super Object, ?> function) {
+        return write(properties -> properties.compute(key, function));
+    }
+
+    @Override
+    public Object merge(Object key, Object value, BiFunction<? super Object, ? super Object, ?> function) {
+        return write(properties -> properties.merge(key, value, function));
+    }
+
+    @Override
+    public void load(Reader reader) throws IOException {
+        putAll(load(properties -> properties.load(reader)));
+    }
+
+    @Override
+    public void load(InputStream in) throws IOException {
+        putAll(load(properties -> properties.load(in)));
+    }
+
+    @Override
+    public void loadFromXML(InputStream in) throws IOException {
+        putAll(load(properties -> properties.loadFromXML(in)));
+    }
+
+    private static Properties load(Loader loader) throws IOException {
+        Properties loaded = new Properties();
+        loader.load(loaded);
+        return loaded;
+    }
+
+    @Override
+    public Object clone() {
+        return view().clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || read(properties -> properties.equals(o));
+    }
+
+    @Override
+    public int hashCode() {
+        return read(Properties::hashCode);
+    }
+
+    @Override
+    public String toString() {
+        return read(Properties::toString);
+    }
+
+    private interface Loader {
+
+        void load(Properties properties) throws IOException;
+    }
+}
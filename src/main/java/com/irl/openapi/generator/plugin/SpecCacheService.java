@@ -0,0 +1,137 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.config.CodegenConfigurator;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+
+/**
+ * Caches parsed and resolved specs, so that several {@code openapiSources} entries generating
+ * from the same spec parse it only once.
+ * <p>
+ * The cache lives as long as the service, i.e. for one build. Entries are keyed by the content of
+ * the spec and all files it references and evicted least recently used first. They are stored
+ * serialized, because the generator modifies the model it works on, so every generation gets its
+ * own copy.
+ */
+public abstract class SpecCacheService implements BuildService<SpecCacheService.Params>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecCacheService.class);
+
+    private static final String EMPTY_SPEC = "openapi: 3.0.1\ninfo:\n  title: empty\n  version: '1'\npaths: {}\n";
+
+    private final Map<String, String> specs = new LinkedHashMap<String, String>(16, 0.75f, true);
+
+    private final int maxEntries;
+
+    private File emptySpec;
+
+    public interface Params extends BuildServiceParameters {
+
+        Property<Integer> getMaxEntries();
+    }
+
+    public SpecCacheService() {
+        maxEntries = getParameters().getMaxEntries().get();
+    }
+
+    /**
+     * Same as {@link CodegenConfigurator#toClientOptInput()} followed by the preprocessing, but
+     * takes the preprocessed model from the cache when neither the spec nor the preprocessing
+     * changed since it was last parsed.
+     */
+    public ClientOptInput toClientOptInput(CodegenConfigurator configurator, File inputSpec,
+            List<SpecPreprocessor> preprocessors) {
+        return LanguageLoader.with(configurator.getLang(), () -> {
+            if (inputSpec == null) {
+                // the spec comes from the configuration file
+                ClientOptInput input = configurator.toClientOptInput();
+                SpecPreprocessors.apply(preprocessors, input.getOpenAPI());
+                return input;
+            }
+
+            try {
+                String key = SpecReferences.contentHash(inputSpec) + SpecPreprocessors.cacheKey(preprocessors);
+                return toClientOptInput(configurator, inputSpec, preprocessors, key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private ClientOptInput toClientOptInput(CodegenConfigurator configurator, File inputSpec,
+            List<SpecPreprocessor> preprocessors, String key) throws IOException {
+
+        String spec;
+        synchronized (specs) {
+            spec = specs.get(key);
+        }
+
+        if (spec == null) {
+            ClientOptInput input = configurator.toClientOptInput();
+            SpecPreprocessors.apply(preprocessors, input.getOpenAPI());
+            if (input.getOpenAPI() != null) {
+                spec = Json.mapper().writeValueAsString(input.getOpenAPI());
+                put(key, spec);
+                // the same model as on a cache hit, so both generate the same sources
+                input.openAPI(Json.mapper().readValue(spec, OpenAPI.class));
+            }
+            return input;
+        }
+
+        LOGGER.info("Using cached model of " + inputSpec);
+
+        // The configurator cannot be handed a parsed model, let it parse an empty spec instead
+        String location = configurator.getInputSpec();
+        configurator.setInputSpec(emptySpec().getAbsolutePath());
+        ClientOptInput input;
+        try {
+            input = configurator.toClientOptInput();
+        } finally {
+            configurator.setInputSpec(location);
+        }
+        input.getConfig().setInputSpec(location);
+        input.openAPI(Json.mapper().readValue(spec, OpenAPI.class));
+        return input;
+    }
+
+    private void put(String key, String spec) {
+        synchronized (specs) {
+            specs.put(key, spec);
+            while (specs.size() > maxEntries) {
+                specs.remove(specs.keySet().iterator().next());
+            }
+        }
+    }
+
+    private synchronized File emptySpec() throws IOException {
+        if (emptySpec == null || !emptySpec.isFile()) {
+            emptySpec = File.createTempFile("openapi-empty", ".yaml");
+            emptySpec.deleteOnExit();
+            Files.write(emptySpec.toPath(), EMPTY_SPEC.getBytes(StandardCharsets.UTF_8));
+        }
+        return emptySpec;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (emptySpec != null) {
+            emptySpec.delete();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Downloads a remote spec. The download is kept in a cache in the Gradle user home together with
+ * its {@code ETag} and {@code Last-Modified} headers, and later downloads only ask the server
+ * whether the spec changed. In offline mode, or when the server cannot be reached, the cached copy
+ * is used.
+ * <p>
+ * The task always runs, but it only rewrites its output when the spec changed, so the generator
+ * task stays up-to-date as long as the remote spec does not change.
+ */
+public abstract class SpecDownloadTask extends DefaultTask {
+
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private static final String ETAG = "etag";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    public SpecDownloadTask() {
+        getOutputs().upToDateWhen(task -> false);
+    }
+
+    @Input
+    public abstract Property<String> getUrl();
+
+    /**
+     * Authorization headers, as URL-encoded {@code name:value} pairs separated by commas. Not an
+     * input, so credentials are not part of the task history.
+     */
+    @Internal
+    public abstract Property<String> getAuth();
+
+    @Internal
+    public abstract Property<Boolean> getOffline();
+
+    /**
+     * The cache of downloaded specs, shared by all builds of the user.
+     */
+    @Internal
+    public abstract DirectoryProperty getCacheDirectory();
+
+    @OutputFile
+    public abstract RegularFileProperty getSpecFile();
+
+    @TaskAction
+    public void download() throws IOException {
+        String url = getUrl().get();
+        File cache = getCacheDirectory().dir(Hashing.sha256Hex(url)).get().getAsFile();
+        File cachedSpec = new File(cache, "spec");
+        File metadataFile = new File(cache, "metadata.properties");
+        Properties metadata = new Properties();
+        if (cachedSpec.isFile() && metadataFile.isFile()) {
+            try (InputStream in = Files.newInputStream(metadataFile.toPath())) {
+                metadata.load(in);
+            }
+        }
+
+        if (getOffline().get()) {
+            if (!cachedSpec.isFile()) {
+                throw new GradleException("No cached copy of " + url + " is available in offline mode");
+            }
+            getLogger().info("Using the cached copy of " + url + " in offline mode");
+        } else {
+            try {
+                fetch(url, cache, cachedSpec, metadataFile, metadata);
+            } catch (IOException e) {
+                if (!cachedSpec.isFile()) {
+                    throw new GradleException("Unable to download " + url, e);
+                }
+                getLogger().warn("Unable to download " + url + ", using the cached copy: " + e.getMessage());
+            }
+        }
+
+        File specFile = getSpecFile().getAsFile().get();
+        if (!specFile.isFile() || !Arrays.equals(Files.readAllBytes(specFile.toPath()), Files.readAllBytes(cachedSpec.toPath()))) {
+            specFile.getParentFile().mkdirs();
+            Files.copy(cachedSpec.toPath(), specFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void fetch(String url, File cache, File cachedSpec, File metadataFile, Properties metadata) throws IOException {
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        addAuthorization(connection);
+        if (metadata.getProperty(ETAG) != null) {
+            connection.setRequestProperty("If-None-Match", metadata.getProperty(ETAG));
+        }
+        if (metadata.getProperty(LAST_MODIFIED) != null) {
+            connection.setRequestProperty("If-Modified-Since", metadata.getProperty(LAST_MODIFIED));
+        }
+
+        if (connection instanceof HttpURLConnection) {
+            int status = ((HttpURLConnection) connection).getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cachedSpec.isFile()) {
+                getLogger().info(url + " did not change");
+                return;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Server returned HTTP status " + status);
+            }
+        }
+
+        cache.mkdirs();
+        File download = File.createTempFile("spec", ".download", cache);
+        try {
+            try (InputStream in = connection.getInputStream(); OutputStream out = Files.newOutputStream(download.toPath())) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            Files.move(download.toPath(), cachedSpec.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            download.delete();
+        }
+
+        Properties downloaded = new Properties();
+        downloaded.setProperty("url", url);
+        if (connection.getHeaderField("ETag") != null) {
+            downloaded.setProperty(ETAG, connection.getHeaderField("ETag"));
+        }
+        if (connection.getHeaderField("Last-Modified") != null) {
+            downloaded.setProperty(LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+        }
+        try (OutputStream out = Files.newOutputStream(metadataFile.toPath())) {
+            downloaded.store(out, null);
+        }
+        getLogger().info("Downloaded " + url);
+    }
+
+    /**
+     * Sends the headers of {@link #getAuth()}, in the format of the {@code auth} option of the
+     * generator.
+     */
+    private void addAuthorization(URLConnection connection) throws UnsupportedEncodingException {
+        if (!getAuth().isPresent()) {
+            return;
+        }
+
+        for (String header : getAuth().get().split(",")) {
+            int separator = header.indexOf(':');
+            if (separator > 0) {
+                connection.setRequestProperty(
+                        URLDecoder.decode(header.substring(0, separator), StandardCharsets.UTF_8.name()),
+                        URLDecoder.decode(header.substring(separator + 1), StandardCharsets.UTF_8.name()));
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.util.Set;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+/**
+ * The specs and the local files they reference through relative {@code $ref}s, transitively.
+ * <p>
+ * A value source, so the files are searched when Gradle fingerprints the task inputs, in every
+ * build, also when the task graph is loaded from the configuration cache. Searching them when the
+ * task is configured would freeze the set of files in the cache entry.
+ */
+public abstract class SpecFilesSource implements ValueSource<Set<File>, SpecFilesSource.Params> {
+
+    public interface Params extends ValueSourceParameters {
+
+        ConfigurableFileCollection getSpecs();
+
+        /**
+         * The references between the spec files of the last search, see
+         * {@link SpecReferenceGraph}.
+         */
+        RegularFileProperty getReferencesFile();
+    }
+
+    @Override
+    public Set<File> obtain() {
+        return SpecReferenceGraph.files(getParameters().getSpecs().getFiles(),
+                getParameters().getReferencesFile().getAsFile().get());
+    }
+}
@@ -0,0 +1,170 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.config.CodegenConfigurator;
+
+/**
+ * The generation of one spec: parses it, decides what to regenerate, renders the files and
+ * records the generation index for the next run.
+ */
+class SpecGeneration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecGeneration.class);
+
+    private final CodegenSettings settings;
+
+    private final Supplier<CodegenConfigurator> configurators;
+
+    private final SpecCacheService specCache;
+
+    private final TemplateCacheService templateCache;
+
+    SpecGeneration(CodegenSettings settings, SpecCacheService specCache, TemplateCacheService templateCache) {
+        this(settings, settings::getCodegenConfigurator, specCache, templateCache);
+    }
+
+    /**
+     * @param configurators makes a new configurator of the settings for every parse
+     */
+    SpecGeneration(CodegenSettings settings, Supplier<CodegenConfigurator> configurators,
+            SpecCacheService specCache, TemplateCacheService templateCache) {
+        this.settings = settings;
+        this.configurators = configurators;
+        this.specCache = specCache;
+        this.templateCache = templateCache;
+    }
+
+    /**
+     * @param indexFile the generation index of the last generation, replaced by the one of this
+     *        generation
+     * @param specFiles the spec and the files it references
+     * @param codeSizeFile where to write the size of all generated files, if not null
+     */
+    void run(File indexFile, Collection<File> specFiles, File codeSizeFile, GenerationMetrics metrics)
+            throws Exception {
+        String fingerprint = settings.fingerprint();
+        String specHash = specHash(specFiles);
+        GenerationIndex previous = GenerationIndex.read(indexFile);
+        boolean sameSettings = previous != null && fingerprint.equals(previous.getFingerprint());
+        // generated files that were edited or deleted since are restored
+        Set<String> modified = sameSettings ? previous.modifiedEntries(settings.getOutput()) : null;
+        if (sameSettings && specHash.equals(previous.getSpecHash()) && modified.isEmpty()
+                && (codeSizeFile == null || codeSizeFile.isFile())) {
+            metrics.incremental(true);
+            LOGGER.info("The spec and the settings did not change since the last generation, nothing to regenerate.");
+            return;
+        }
+
+        CodegenConfigurator configurator = metrics.phase("configure", configurators::get);
+        GenerationOptions options = settings.getGenerationOptions();
+
+        // the parser resolves the $refs while parsing, so parse includes the reference resolution
+        // and the preprocessing
+        final ClientOptInput input = metrics.phase("parse", () -> options.apply(
+                () -> specCache.toClientOptInput(configurator, settings.getInputSpec(), settings.getPreprocessors())));
+        metrics.spec(input.getOpenAPI());
+
+        // With skipOverwrite the generator leaves existing files alone and does not report
+        // them, so the generated files cannot be tracked
+        IncrementalGeneration incremental = metrics.phase("plan", () -> {
+            if (Boolean.TRUE.equals(settings.getSkipOverwrite())) {
+                return null;
+            }
+            return new IncrementalGeneration(previous, modified,
+                    GenerationIndex.of(input.getOpenAPI(), input.getConfig()), settings.getOutput());
+        });
+        indexFile.delete();
+
+        WriteStatistics statistics = new WriteStatistics();
+        List<GenerationOptions> runs = incremental != null
+                ? incremental.restrict(options) : Collections.singletonList(options);
+        List<File> files = new ArrayList<File>();
+        if (!runs.isEmpty()) {
+            metrics.incremental(incremental != null && !incremental.isFull());
+            TemplateCacheService.Templates templates = templateCache.forDirectory(settings.getTemplateDirectory());
+            Function<GenerationOptions, CodegenGenerator> generators = generatorOptions ->
+                    new CodegenGenerator(generatorOptions, templates, statistics);
+            // every run needs its own configurator, the spec cache swaps its input spec
+            Function<GenerationOptions, ClientOptInput> inputs = inputOptions -> inputOptions.apply(
+                    () -> specCache.toClientOptInput(configurators.get(), settings.getInputSpec(),
+                            settings.getPreprocessors()));
+
+            // includes the file I/O, which is also reported on its own
+            metrics.phase("generate", () -> {
+                for (GenerationOptions run : runs) {
+                    // the generator modifies the model, so only the first run gets the parsed one
+                    ClientOptInput runInput = run == runs.get(0) ? input : inputs.apply(run);
+                    if (settings.getParallelism() > 1 && (run.getModels() != null || run.getApis() != null)) {
+                        files.addAll(new ParallelGeneration(settings.getParallelism(), inputs, generators)
+                                .generate(runInput, run));
+                    } else {
+                        files.addAll(generators.apply(run).opts(runInput).generate());
+                    }
+                }
+                return null;
+            });
+        } else {
+            metrics.incremental(true);
+            LOGGER.info("No models or apis changed, nothing to regenerate.");
+        }
+
+        GenerationIndex index = null;
+        if (incremental != null) {
+            index = metrics.phase("index", () -> {
+                GenerationIndex completed = incremental.complete(files, input.getConfig(),
+                        options.getApis() != null, statistics);
+                completed.setFingerprint(fingerprint);
+                completed.setSpecHash(specHash);
+                completed.write(indexFile);
+                return completed;
+            });
+        }
+        metrics.statistics(statistics);
+
+        if (codeSizeFile != null) {
+            // the files of earlier runs that were not regenerated are part of the output as well
+            Collection<File> generated = new LinkedHashSet<File>(files);
+            if (index != null) {
+                for (String path : index.allFiles().keySet()) {
+                    generated.add(new File(settings.getOutput(), path));
+                }
+            }
+            if (files.isEmpty()) {
+                // the generator did not run, the config still needs the options for its folders
+                input.getConfig().processOpts();
+            }
+            metrics.phase("codeSize", () -> {
+                CodeSizeReport.of(settings.getOutput(), generated, input.getConfig(), input.getOpenAPI())
+                        .write(codeSizeFile);
+                return null;
+            });
+        }
+        LOGGER.info("Generated files in " + settings.getOutput() + ": " + statistics);
+    }
+
+    private static String specHash(Collection<File> specFiles) throws IOException {
+        MessageDigest digest = Hashing.sha256();
+        for (File file : new TreeSet<File>(specFiles)) {
+            digest.update(file.getName().getBytes(StandardCharsets.UTF_8));
+            Hashing.update(digest, file);
+        }
+        return Hashing.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,50 @@
+package com.irl.openapi.generator.plugin;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import io.swagger.v3.oas.models.Operation;
+
+/**
+ * The names the generation steps agree on: the tags of operations, the roots of schema
+ * hierarchies and the base names of generated files.
+ */
+final class SpecNames {
+
+    /**
+     * The tag of untagged operations, as swagger-codegen assigns it.
+     */
+    static final String DEFAULT_TAG = "default";
+
+    private SpecNames() {
+    }
+
+    /**
+     * The tags of the operation, or the default tag if it has none.
+     */
+    static List<String> tags(Operation operation) {
+        List<String> tags = operation.getTags();
+        return tags == null || tags.isEmpty() ? Collections.singletonList(DEFAULT_TAG) : tags;
+    }
+
+    /**
+     * The root of the name in a map of names to their parents, in which roots are missing or
+     * their own parent.
+     */
+    static String root(Map<String, String> parents, String name) {
+        String root = name;
+        while (parents.containsKey(root) && !parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        return root;
+    }
+
+    /**
+     * The file name without its extension.
+     */
+    static String baseName(String fileName) {
+        int extension = fileName.lastIndexOf('.');
+        return extension > 0 ? fileName.substring(0, extension) : fileName;
+    }
+}
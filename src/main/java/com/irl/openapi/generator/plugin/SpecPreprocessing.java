@@ -0,0 +1,52 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.gradle.api.provider.ListProperty;
+
+/**
+ * The {@code preprocess} block of an {@code openapiSources} entry. Every call adds a step, the
+ * steps run in the order of the calls.
+ */
+public class SpecPreprocessing {
+
+    private final ListProperty<SpecPreprocessor> steps;
+
+    SpecPreprocessing(ListProperty<SpecPreprocessor> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Removes all {@code x-} extensions, or those starting with one of the prefixes.
+     */
+    public void stripVendorExtensions(String... prefixes) {
+        steps.add(SpecPreprocessors.stripVendorExtensions(Arrays.asList(prefixes)));
+    }
+
+    public void flattenInlineSchemas() {
+        steps.add(SpecPreprocessors.flattenInlineSchemas());
+    }
+
+    /**
+     * Keeps the operations with one of the tags. Untagged operations have the tag
+     * {@code default}.
+     */
+    public void filterTags(String... tags) {
+        steps.add(SpecPreprocessors.filterTags(Arrays.asList(tags)));
+    }
+
+    /**
+     * Adds the paths, components and tags of the spec fragments.
+     */
+    public void merge(File... fragments) {
+        steps.add(SpecPreprocessors.merge(Arrays.asList(fragments)));
+    }
+
+    /**
+     * Adds a custom step.
+     */
+    public void step(SpecPreprocessor preprocessor) {
+        steps.add(preprocessor);
+    }
+}
@@ -0,0 +1,33 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+
+import io.swagger.v3.oas.models.OpenAPI;
+
+/**
+ * A step transforming the parsed spec before the generation. The steps of an
+ * {@code openapiSources} entry run in the order they are declared, on the model in memory.
+ * <p>
+ * Steps are handed to the worker running the generation, so they have to be serializable.
+ */
+public interface SpecPreprocessor extends Serializable {
+
+    /**
+     * Identifies the step and its configuration. Part of the task inputs and of the key of the
+     * preprocessed model in the spec cache, so it must change whenever the step would transform
+     * the spec differently.
+     */
+    String getKey();
+
+    /**
+     * The files the step reads besides the spec. Tracked by content.
+     */
+    default Collection<File> getFiles() {
+        return Collections.emptyList();
+    }
+
+    void process(OpenAPI openAPI);
+}
@@ -0,0 +1,457 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.tags.Tag;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import io.swagger.v3.parser.util.InlineModelResolver;
+
+/**
+ * The built-in {@link SpecPreprocessor}s.
+ */
+final class SpecPreprocessors {
+
+    private static final String MODELS_PACKAGE = "io.swagger.v3.oas.models.";
+
+    private static final String VENDOR_EXTENSION = "x-";
+
+    private SpecPreprocessors() {
+    }
+
+    /**
+     * Runs the steps in order on the model.
+     */
+    static void apply(List<SpecPreprocessor> preprocessors, OpenAPI openAPI) {
+        if (openAPI == null) {
+            return;
+        }
+        for (SpecPreprocessor preprocessor : preprocessors) {
+            preprocessor.process(openAPI);
+        }
+    }
+
+    /**
+     * Hash over the configuration of the steps and the content of the files they read, empty if
+     * there are no steps.
+     */
+    static String cacheKey(List<SpecPreprocessor> preprocessors) throws IOException {
+        if (preprocessors.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (SpecPreprocessor preprocessor : preprocessors) {
+            key.append(preprocessor.getClass().getName()).append(' ').append(preprocessor.getKey());
+            for (File file : preprocessor.getFiles()) {
+                key.append(' ').append(SpecReferences.contentHash(file));
+            }
+            key.append('\n');
+        }
+        return Hashing.sha256Hex(key.toString());
+    }
+
+    static SpecPreprocessor stripVendorExtensions(List<String> prefixes) {
+        return new StripVendorExtensions(prefixes);
+    }
+
+    static SpecPreprocessor flattenInlineSchemas() {
+        return new FlattenInlineSchemas();
+    }
+
+    static SpecPreprocessor filterTags(List<String> tags) {
+        return new ApiFilter(tags, Collections.<String>emptyList(), Collections.<String>emptyList(), false);
+    }
+
+    static SpecPreprocessor filterApis(List<String> tags, List<String> pathPrefixes, List<String> operationIds,
+            boolean pruneModels) {
+        return new ApiFilter(tags, pathPrefixes, operationIds, pruneModels);
+    }
+
+    static SpecPreprocessor merge(List<File> fragments) {
+        return new MergeFragments(fragments);
+    }
+
+    /**
+     * Removes the {@code x-} extensions, or only those starting with one of the given prefixes,
+     * from every object of the spec.
+     */
+    private static final class StripVendorExtensions implements SpecPreprocessor {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> prefixes;
+
+        StripVendorExtensions(List<String> prefixes) {
+            this.prefixes = new ArrayList<String>(prefixes);
+        }
+
+        @Override
+        public String getKey() {
+            return StringUtils.join(prefixes, ",");
+        }
+
+        @Override
+        public void process(OpenAPI openAPI) {
+            strip(openAPI, Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+        }
+
+        private void strip(Object node, Set<Object> visited) {
+            if (node == null || !visited.add(node)) {
+                return;
+            }
+
+            // Paths and ApiResponses are maps with extensions of their own
+            if (node instanceof Map) {
+                for (Object value : ((Map<?, ?>) node).values()) {
+                    strip(value, visited);
+                }
+            } else if (node instanceof Collection) {
+                for (Object value : (Collection<?>) node) {
+                    strip(value, visited);
+                }
+            }
+            if (!node.getClass().getName().startsWith(MODELS_PACKAGE)) {
+                return;
+            }
+
+            for (Method method : node.getClass().getMethods()) {
+                if (method.getParameterCount() != 0 || !method.getName().startsWith("get")
+                        || method.getDeclaringClass().getName().startsWith("java.")) {
+                    continue;
+                }
+
+                Object value;
+                try {
+                    value = method.invoke(node);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new IllegalStateException("Unable to read " + method, e);
+                }
+                if (method.getName().equals("getExtensions")) {
+                    if (value != null) {
+                        ((Map<?, ?>) value).keySet().removeIf(name -> stripped(String.valueOf(name)));
+                    }
+                } else {
+                    strip(value, visited);
+                }
+            }
+        }
+
+        private boolean stripped(String extension) {
+            if (prefixes.isEmpty()) {
+                return extension.startsWith(VENDOR_EXTENSION);
+            }
+            for (String prefix : prefixes) {
+                if (extension.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Moves inline object schemas to the components, so the generated models get names chosen
+     * before any other step sees the spec.
+     */
+    private static final class FlattenInlineSchemas implements SpecPreprocessor {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String getKey() {
+            return "";
+        }
+
+        @Override
+        public void process(OpenAPI openAPI) {
+            new InlineModelResolver().flatten(openAPI);
+        }
+    }
+
+    /**
+     * Keeps only the operations matching all configured criteria: one of the tags, one of the
+     * path prefixes and one of the operation ids. Operations without tags have the tag
+     * {@code default}, like in the generated apis. Tags no longer used by an operation are
+     * removed.
+     * <p>
+     * Optionally also removes the component schemas the remaining operations do not reach
+     * through {@code $ref}s, directly or through other components. The subtypes of a reached
+     * schema with a discriminator are reached as well, the generator lists them in the parent.
+     */
+    private static final class ApiFilter implements SpecPreprocessor {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final String SCHEMAS = "#/components/schemas/";
+
+        private final Set<String> tags;
+
+        private final List<String> pathPrefixes;
+
+        private final Set<String> operationIds;
+
+        private final boolean pruneModels;
+
+        ApiFilter(List<String> tags, List<String> pathPrefixes, List<String> operationIds, boolean pruneModels) {
+            this.tags = new TreeSet<String>(tags);
+            this.pathPrefixes = new ArrayList<String>(pathPrefixes);
+            this.operationIds = new TreeSet<String>(operationIds);
+            this.pruneModels = pruneModels;
+        }
+
+        @Override
+        public String getKey() {
+            return "tags=" + StringUtils.join(tags, ",") + " paths=" + StringUtils.join(pathPrefixes, ",")
+                    + " operationIds=" + StringUtils.join(operationIds, ",") + " pruneModels=" + pruneModels;
+        }
+
+        @Override
+        public void process(OpenAPI openAPI) {
+            if (openAPI.getPaths() == null) {
+                return;
+            }
+
+            Set<String> usedTags = new HashSet<String>();
+            openAPI.getPaths().entrySet().removeIf(path -> {
+                PathItem pathItem = path.getValue();
+                for (Map.Entry<PathItem.HttpMethod, Operation> operation : pathItem.readOperationsMap().entrySet()) {
+                    if (selected(path.getKey(), operation.getValue())) {
+                        usedTags.addAll(SpecNames.tags(operation.getValue()));
+                    } else {
+                        pathItem.operation(operation.getKey(), null);
+                    }
+                }
+                return pathItem.readOperations().isEmpty();
+            });
+            if (openAPI.getTags() != null) {
+                openAPI.getTags().removeIf(tag -> !usedTags.contains(tag.getName()));
+            }
+
+            if (pruneModels) {
+                pruneSchemas(openAPI);
+            }
+        }
+
+        private boolean selected(String path, Operation operation) {
+            if (!tags.isEmpty() && Collections.disjoint(tags, SpecNames.tags(operation))) {
+                return false;
+            }
+            if (!operationIds.isEmpty() && !operationIds.contains(operation.getOperationId())) {
+                return false;
+            }
+            if (pathPrefixes.isEmpty()) {
+                return true;
+            }
+            for (String prefix : pathPrefixes) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void pruneSchemas(OpenAPI openAPI) {
+            Components components = openAPI.getComponents();
+            if (components == null || components.getSchemas() == null) {
+                return;
+            }
+
+            Map<String, JsonNode> nodes = new HashMap<String, JsonNode>();
+            addComponents(nodes, "schemas", components.getSchemas());
+            addComponents(nodes, "responses", components.getResponses());
+            addComponents(nodes, "parameters", components.getParameters());
+            addComponents(nodes, "requestBodies", components.getRequestBodies());
+            addComponents(nodes, "headers", components.getHeaders());
+            addComponents(nodes, "callbacks", components.getCallbacks());
+
+            Map<String, List<String>> subtypes = new HashMap<String, List<String>>();
+            for (String name : components.getSchemas().keySet()) {
+                for (JsonNode parent : nodes.get(SCHEMAS + name).path("allOf")) {
+                    String parentRef = parent.path("$ref").asText(null);
+                    if (parentRef != null && nodes.containsKey(parentRef) && nodes.get(parentRef).has("discriminator")) {
+                        subtypes.computeIfAbsent(parentRef, ref -> new ArrayList<String>()).add(SCHEMAS + name);
+                    }
+                }
+            }
+
+            Set<String> reached = new HashSet<String>();
+            Deque<String> pending = new ArrayDeque<String>();
+            refs(Json.mapper().valueToTree(openAPI.getPaths()), pending);
+            while (!pending.isEmpty()) {
+                String ref = pending.poll();
+                if (!reached.add(ref)) {
+                    continue;
+                }
+                if (nodes.containsKey(ref)) {
+                    refs(nodes.get(ref), pending);
+                }
+                pending.addAll(subtypes.getOrDefault(ref, Collections.<String>emptyList()));
+            }
+
+            components.getSchemas().keySet().removeIf(name -> !reached.contains(SCHEMAS + name));
+        }
+
+        private static void addComponents(Map<String, JsonNode> nodes, String kind, Map<String, ?> components) {
+            if (components != null) {
+                for (Map.Entry<String, ?> component : components.entrySet()) {
+                    nodes.put("#/components/" + kind + "/" + component.getKey(),
+                            Json.mapper().valueToTree(component.getValue()));
+                }
+            }
+        }
+
+        /**
+         * Adds the {@code $ref}s and discriminator mappings in the node.
+         */
+        private static void refs(JsonNode node, Collection<String> refs) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getKey().equals("$ref") && field.getValue().isTextual()) {
+                    refs.add(field.getValue().asText());
+                } else if (field.getKey().equals("mapping") && field.getValue().isObject()) {
+                    for (JsonNode mapping : field.getValue()) {
+                        if (mapping.isTextual() && mapping.asText().startsWith("#/")) {
+                            refs.add(mapping.asText());
+                        }
+                    }
+                } else {
+                    refs(field.getValue(), refs);
+                }
+            }
+            if (node.isArray()) {
+                for (JsonNode element : node) {
+                    refs(element, refs);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the paths, components and tags of other spec files. A path or component defined
+     * differently in two files is an error.
+     */
+    private static final class MergeFragments implements SpecPreprocessor {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<File> fragments;
+
+        MergeFragments(List<File> fragments) {
+            this.fragments = new ArrayList<File>(fragments);
+        }
+
+        @Override
+        public String getKey() {
+            List<String> names = new ArrayList<String>();
+            for (File fragment : fragments) {
+                names.add(fragment.getName());
+            }
+            return StringUtils.join(names, ",");
+        }
+
+        @Override
+        public Collection<File> getFiles() {
+            return fragments;
+        }
+
+        @Override
+        public void process(OpenAPI openAPI) {
+            for (File file : fragments) {
+                ParseOptions options = new ParseOptions();
+                options.setResolve(true);
+                SwaggerParseResult result = new OpenAPIV3Parser().readLocation(file.getAbsolutePath(), null, options);
+                if (result == null || result.getOpenAPI() == null) {
+                    throw new IllegalStateException("Unable to read the spec fragment " + file
+                            + (result != null ? ": " + result.getMessages() : ""));
+                }
+                merge(openAPI, result.getOpenAPI(), file);
+            }
+        }
+
+        private static void merge(OpenAPI openAPI, OpenAPI fragment, File file) {
+            if (fragment.getPaths() != null) {
+                if (openAPI.getPaths() == null) {
+                    openAPI.setPaths(new Paths());
+                }
+                merge(openAPI.getPaths(), fragment.getPaths(), "Path", file);
+            }
+
+            Components components = fragment.getComponents();
+            if (components != null) {
+                if (openAPI.getComponents() == null) {
+                    openAPI.setComponents(new Components());
+                }
+                Components target = openAPI.getComponents();
+                target.setSchemas(merge(target.getSchemas(), components.getSchemas(), "Schema", file));
+                target.setResponses(merge(target.getResponses(), components.getResponses(), "Response", file));
+                target.setParameters(merge(target.getParameters(), components.getParameters(), "Parameter", file));
+                target.setExamples(merge(target.getExamples(), components.getExamples(), "Example", file));
+                target.setRequestBodies(merge(target.getRequestBodies(), components.getRequestBodies(), "Request body", file));
+                target.setHeaders(merge(target.getHeaders(), components.getHeaders(), "Header", file));
+                target.setSecuritySchemes(merge(target.getSecuritySchemes(), components.getSecuritySchemes(), "Security scheme", file));
+                target.setLinks(merge(target.getLinks(), components.getLinks(), "Link", file));
+                target.setCallbacks(merge(target.getCallbacks(), components.getCallbacks(), "Callback", file));
+            }
+
+            if (fragment.getTags() != null) {
+                Set<String> names = new HashSet<String>();
+                if (openAPI.getTags() != null) {
+                    for (Tag tag : openAPI.getTags()) {
+                        names.add(tag.getName());
+                    }
+                }
+                for (Tag tag : fragment.getTags()) {
+                    if (names.add(tag.getName())) {
+                        openAPI.addTagsItem(tag);
+                    }
+                }
+            }
+        }
+
+        private static <T> Map<String, T> merge(Map<String, T> target, Map<String, T> source, String kind, File file) {
+            if (source == null) {
+                return target;
+            }
+
+            Map<String, T> merged = target != null ? target : new LinkedHashMap<String, T>();
+            for (Map.Entry<String, T> entry : source.entrySet()) {
+                T existing = merged.putIfAbsent(entry.getKey(), entry.getValue());
+                if (existing != null && !existing.equals(entry.getValue())) {
+                    throw new IllegalStateException(kind + " " + entry.getKey() + " of " + file
+                            + " is already defined differently");
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The direct {@code $ref}s of spec files, persisted between builds. A file is only read again
+ * when its size or modification time changed, so finding the files of an unchanged spec costs a
+ * file system check per file.
+ * <p>
+ * Stored as text: a line {@code <last modified> <length> <path>} per file, followed by a line
+ * {@code \t<path>} per file it references.
+ */
+final class SpecReferenceGraph {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecReferenceGraph.class);
+
+    private final File file;
+
+    private final Map<String, Node> nodes = new TreeMap<String, Node>();
+
+    private final Set<String> used = new LinkedHashSet<String>();
+
+    private boolean changed;
+
+    private SpecReferenceGraph(File file) {
+        this.file = file;
+    }
+
+    static SpecReferenceGraph load(File file) {
+        SpecReferenceGraph graph = new SpecReferenceGraph(file);
+        if (!file.isFile()) {
+            return graph;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            Node node = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("\t")) {
+                    node.references.add(new File(line.substring(1)));
+                } else {
+                    String[] fields = line.split(" ", 3);
+                    node = new Node(Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+                    graph.nodes.put(fields[2], node);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Ignoring unreadable spec references " + file + ": " + e.getMessage());
+            graph.nodes.clear();
+        }
+        return graph;
+    }
+
+    /**
+     * The specs and all local files they reference, transitively, using and updating the graph
+     * persisted in the given file. Just the specs if the references cannot be read, the parser
+     * reports the problem.
+     */
+    static Set<File> files(Collection<File> specs, File graphFile) {
+        Set<File> files = new LinkedHashSet<File>();
+        SpecReferenceGraph graph = load(graphFile);
+        for (File spec : specs) {
+            if (!spec.isFile()) {
+                files.add(spec);
+                continue;
+            }
+            try {
+                files.addAll(graph.of(spec));
+            } catch (IOException e) {
+                LOGGER.info("Unable to find the files referenced by " + spec + ": " + e.getMessage());
+                files.add(spec);
+            }
+        }
+        try {
+            graph.save();
+        } catch (IOException e) {
+            LOGGER.info("Unable to save the spec references " + graphFile + ": " + e.getMessage());
+        }
+        return files;
+    }
+
+    /**
+     * The spec and all local files it references, transitively.
+     */
+    Set<File> of(File spec) throws IOException {
+        return SpecReferences.of(spec, this::direct);
+    }
+
+    private Set<File> direct(File specFile) throws IOException {
+        String path = specFile.getPath();
+        used.add(path);
+
+        Node node = nodes.get(path);
+        if (node == null || node.lastModified != specFile.lastModified() || node.length != specFile.length()) {
+            node = new Node(specFile.lastModified(), specFile.length());
+            node.references.addAll(SpecReferences.direct(specFile));
+            nodes.put(path, node);
+            changed = true;
+        }
+        return node.references;
+    }
+
+    /**
+     * Writes the graph, without the files that were not visited since it was loaded.
+     */
+    void save() throws IOException {
+        changed |= nodes.keySet().retainAll(used);
+        if (!changed) {
+            return;
+        }
+
+        file.getParentFile().mkdirs();
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Node> node : nodes.entrySet()) {
+                writer.write(node.getValue().lastModified + " " + node.getValue().length + " " + node.getKey());
+                writer.newLine();
+                for (File reference : node.getValue().references) {
+                    writer.write("\t" + reference.getPath());
+                    writer.newLine();
+                }
+            }
+        }
+        changed = false;
+    }
+
+    private static final class Node {
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final Set<File> references = new LinkedHashSet<File>();
+
+        private Node(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
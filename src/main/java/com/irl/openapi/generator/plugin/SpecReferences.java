@@ -0,0 +1,138 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the files a spec pulls in through relative {@code $ref}s, transitively.
+ * <p>
+ * The references are searched in the text of the files, without parsing them, so that finding
+ * the inputs of a task stays cheap. Quoted and plain values, JSON escapes and percent-encoded
+ * paths are understood. References the search cannot see, e.g. a {@code $ref} key written as an
+ * escape sequence or a value spread over several lines, are still resolved by the parser, but a
+ * change of the file they point to does not rerun the tasks.
+ */
+final class SpecReferences {
+
+    /**
+     * The location part of a {@code $ref} value in YAML or JSON, without the fragment: a double
+     * quoted value with JSON escapes, a single quoted or a plain value.
+     */
+    private static final Pattern REF = Pattern.compile(
+            "\\$ref[\"']?\\s*:\\s*(?:\"((?:[^\"\\\\#]|\\\\.)*)|'((?:[^'#]|'')*)|([^\"'#\\s,}]*))");
+
+    private static final Pattern ESCAPE = Pattern.compile("\\\\(?:u([0-9a-fA-F]{4})|(.))");
+
+    private SpecReferences() {
+    }
+
+    /**
+     * The spec itself followed by every local file it references, in discovery order. Remote
+     * references and references to missing files are left to the parser.
+     */
+    static Set<File> of(File spec) throws IOException {
+        return of(spec, SpecReferences::direct);
+    }
+
+    /**
+     * Same as {@link #of(File)}, finding the references of a file with the given function.
+     */
+    static Set<File> of(File spec, References references) throws IOException {
+        Set<File> files = new LinkedHashSet<File>();
+        Deque<File> pending = new ArrayDeque<File>();
+        pending.add(spec.getCanonicalFile());
+
+        while (!pending.isEmpty()) {
+            File file = pending.poll();
+            if (!files.add(file)) {
+                continue;
+            }
+
+            for (File referenced : references.of(file)) {
+                if (referenced.isFile() && !files.contains(referenced)) {
+                    pending.add(referenced);
+                }
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * The local files one file references directly, as canonical files. They do not have to
+     * exist.
+     */
+    static Set<File> direct(File file) throws IOException {
+        Set<File> references = new LinkedHashSet<File>();
+        Matcher matcher = REF.matcher(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            String location = location(matcher);
+            if (location.isEmpty() || location.contains(":")) {
+                continue;
+            }
+
+            references.add(new File(file.getParentFile(), location).getCanonicalFile());
+        }
+        return references;
+    }
+
+    private static String location(Matcher ref) {
+        String location;
+        if (ref.group(1) != null) {
+            location = unescape(ref.group(1));
+        } else if (ref.group(2) != null) {
+            location = ref.group(2).replace("''", "'");
+        } else {
+            location = ref.group(3);
+        }
+
+        // a relative URI reference, e.g. schemas/pet%20type.yaml
+        try {
+            return URLDecoder.decode(location.replace("+", "%2B"), StandardCharsets.UTF_8.name());
+        } catch (IllegalArgumentException | UnsupportedEncodingException e) {
+            return location;
+        }
+    }
+
+    private static String unescape(String value) {
+        Matcher escape = ESCAPE.matcher(value);
+        StringBuffer unescaped = new StringBuffer();
+        while (escape.find()) {
+            String replacement = escape.group(1) != null
+                    ? String.valueOf((char) Integer.parseInt(escape.group(1), 16)) : escape.group(2);
+            escape.appendReplacement(unescaped, Matcher.quoteReplacement(replacement));
+        }
+        escape.appendTail(unescaped);
+        return unescaped.toString();
+    }
+
+    /**
+     * Hash over the content of the spec and all files it references.
+     */
+    static String contentHash(File spec) throws IOException {
+        Set<File> files = of(spec);
+        File root = files.iterator().next().getParentFile();
+
+        StringBuilder hashes = new StringBuilder();
+        for (File file : files) {
+            hashes.append(root.toPath().relativize(file.toPath())).append('=')
+                    .append(Hashing.sha256Hex(file)).append('\n');
+        }
+        return Hashing.sha256Hex(hashes.toString());
+    }
+
+    interface References {
+
+        Set<File> of(File file) throws IOException;
+    }
+}
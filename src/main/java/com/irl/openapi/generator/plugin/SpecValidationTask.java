@@ -0,0 +1,169 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+
+/**
+ * Parses and resolves a spec without generating anything, so a broken spec fails the build before
+ * the generator runs. The parser messages name the location of the problem in the spec, e.g.
+ * {@code attribute paths.'/pets'(get).responses is missing}.
+ * <p>
+ * Unexpected attributes and operation ids used more than once are reported as warnings,
+ * everything else the parser reports as errors. The problems are written to a report, so the
+ * task is up-to-date or taken from the build cache as long as the spec files do not change.
+ */
+@CacheableTask
+public abstract class SpecValidationTask extends DefaultTask {
+
+    private static final String ERROR = "ERROR";
+
+    private static final String WARNING = "WARNING";
+
+    public SpecValidationTask() {
+        getFailOnWarnings().convention(false);
+        getReportFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("reports/openapi-codegen/" + getName() + ".txt"));
+        getReferencesFile().convention(getProject().getLayout().getBuildDirectory()
+                .file("openapi-codegen/" + getName() + "/spec-references.txt"));
+    }
+
+    @Internal
+    public abstract RegularFileProperty getSpec();
+
+    /**
+     * The spec and the files it references through relative {@code $ref}s, transitively.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getSpecFiles() {
+        File spec = getSpec().getAsFile().getOrNull();
+        if (spec == null) {
+            return getObjects().fileCollection();
+        }
+        return getObjects().fileCollection().from(getProviders().of(SpecFilesSource.class, source -> {
+            source.getParameters().getSpecs().from(spec);
+            source.getParameters().getReferencesFile().set(getReferencesFile());
+        }));
+    }
+
+    @Input
+    public abstract Property<Boolean> getFailOnWarnings();
+
+    @Internal
+    public abstract RegularFileProperty getReferencesFile();
+
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    @Inject
+    protected abstract ObjectFactory getObjects();
+
+    @Inject
+    protected abstract ProviderFactory getProviders();
+
+    @TaskAction
+    public void validate() throws IOException {
+        File spec = getSpec().getAsFile().get();
+
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        SwaggerParseResult result = new OpenAPIV3Parser().readLocation(spec.getAbsolutePath(), null, options);
+
+        List<String> problems = new ArrayList<String>();
+        int errors = 0;
+        if (result == null || result.getOpenAPI() == null) {
+            problems.add(ERROR + " " + spec.getName() + ": not a valid OpenAPI 3 spec");
+            errors++;
+        }
+        if (result != null && result.getMessages() != null) {
+            for (String message : result.getMessages()) {
+                boolean warning = message.endsWith("is unexpected");
+                problems.add((warning ? WARNING : ERROR) + " " + spec.getName() + ": " + message);
+                errors += warning ? 0 : 1;
+            }
+        }
+        if (result != null && result.getOpenAPI() != null) {
+            for (String duplicate : duplicateOperationIds(result.getOpenAPI())) {
+                problems.add(WARNING + " " + spec.getName() + ": " + duplicate);
+            }
+        }
+
+        for (String problem : problems) {
+            if (problem.startsWith(ERROR)) {
+                getLogger().error(problem);
+            } else {
+                getLogger().warn(problem);
+            }
+        }
+
+        File reportFile = getReportFile().getAsFile().get();
+        reportFile.getParentFile().mkdirs();
+        Files.write(reportFile.toPath(), problems, StandardCharsets.UTF_8);
+
+        int warnings = problems.size() - errors;
+        if (errors > 0 || (warnings > 0 && getFailOnWarnings().get())) {
+            throw new GradleException("The OpenAPI specification " + spec + " has " + errors + " error(s) and "
+                    + warnings + " warning(s). See " + reportFile + " for the list.");
+        }
+    }
+
+    /**
+     * The generator renames duplicate operation ids, so the generated method names do not match
+     * the spec.
+     */
+    private static List<String> duplicateOperationIds(OpenAPI openAPI) {
+        List<String> duplicates = new ArrayList<String>();
+        if (openAPI.getPaths() == null) {
+            return duplicates;
+        }
+
+        Map<String, String> locations = new HashMap<String, String>();
+        for (Map.Entry<String, PathItem> path : openAPI.getPaths().entrySet()) {
+            for (Map.Entry<PathItem.HttpMethod, Operation> operation : path.getValue().readOperationsMap().entrySet()) {
+                String operationId = operation.getValue().getOperationId();
+                if (operationId == null) {
+                    continue;
+                }
+
+                String location = "paths.'" + path.getKey() + "'(" + operation.getKey().name().toLowerCase() + ")";
+                String first = locations.putIfAbsent(operationId, location);
+                if (first != null) {
+                    duplicates.add("attribute " + location + ".operationId '" + operationId
+                            + "' is already used by " + first);
+                }
+            }
+        }
+        return duplicates;
+    }
+}
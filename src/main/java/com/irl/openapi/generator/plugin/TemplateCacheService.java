@@ -0,0 +1,130 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Caches the templates the generator loads, so that generations using the same language and
+ * template directory do not resolve and read every template again.
+ * <p>
+ * Like the {@link SpecCacheService}, the cache lives as long as the service. Entries are keyed
+ * by the template path and the content hash of the template directory, and the entries of a
+ * template directory are dropped as soon as a file in it changes.
+ */
+public abstract class TemplateCacheService implements BuildService<TemplateCacheService.Params> {
+
+    private final Map<String, String> templates = new LinkedHashMap<String, String>(256, 0.75f, true);
+
+    /**
+     * Content hash of every template directory seen, by absolute path.
+     */
+    private final Map<String, String> directories = new HashMap<String, String>();
+
+    private final int maxEntries;
+
+    public interface Params extends BuildServiceParameters {
+
+        Property<Integer> getMaxEntries();
+    }
+
+    public TemplateCacheService() {
+        maxEntries = getParameters().getMaxEntries().get();
+    }
+
+    /**
+     * The templates of one generation.
+     *
+     * @param templateDirectory the user template directory, or {@code null} if only the
+     *        templates bundled with the language are used
+     */
+    public Templates forDirectory(File templateDirectory) {
+        if (templateDirectory == null || !templateDirectory.isDirectory()) {
+            return new Templates("");
+        }
+
+        String hash = contentHash(templateDirectory);
+        synchronized (templates) {
+            String previous = directories.put(templateDirectory.getAbsolutePath(), hash);
+            if (previous != null && !previous.equals(hash)) {
+                Iterator<String> keys = templates.keySet().iterator();
+                while (keys.hasNext()) {
+                    if (keys.next().startsWith(previous + '\n')) {
+                        keys.remove();
+                    }
+                }
+            }
+        }
+        return new Templates(hash);
+    }
+
+    private static String contentHash(File directory) {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            List<Path> files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+
+            StringBuilder hashes = new StringBuilder();
+            for (Path file : files) {
+                hashes.append(directory.toPath().relativize(file)).append('=')
+                        .append(Hashing.sha256Hex(file.toFile())).append('\n');
+            }
+            return Hashing.sha256Hex(hashes.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String get(String key) {
+        synchronized (templates) {
+            return templates.get(key);
+        }
+    }
+
+    private void put(String key, String template) {
+        synchronized (templates) {
+            templates.put(key, template);
+            while (templates.size() > maxEntries) {
+                templates.remove(templates.keySet().iterator().next());
+            }
+        }
+    }
+
+    public final class Templates {
+
+        private final String namespace;
+
+        private Templates(String namespace) {
+            this.namespace = namespace;
+        }
+
+        /**
+         * The template with the given name, loaded with the given loader if it is not cached.
+         */
+        public String read(String name, Function<String, String> loader) {
+            String key = namespace + '\n' + name;
+            String template = get(key);
+            if (template != null) {
+                return template;
+            }
+
+            template = loader.apply(name);
+            if (template != null) {
+                put(key, template);
+            }
+            return template;
+        }
+    }
+}
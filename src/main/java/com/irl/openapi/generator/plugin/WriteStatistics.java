@@ -0,0 +1,72 @@
+package com.irl.openapi.generator.plugin;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what a generation did to the files in the output directory.
+ */
+public class WriteStatistics {
+
+    private final AtomicInteger written = new AtomicInteger();
+
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    private final AtomicInteger deleted = new AtomicInteger();
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private final AtomicLong writeNanos = new AtomicLong();
+
+    void fileWritten(long bytes, long nanos) {
+        written.incrementAndGet();
+        bytesWritten.addAndGet(bytes);
+        writeNanos.addAndGet(nanos);
+    }
+
+    void fileSkipped(long nanos) {
+        skipped.incrementAndGet();
+        writeNanos.addAndGet(nanos);
+    }
+
+    void fileDeleted() {
+        deleted.incrementAndGet();
+    }
+
+    /**
+     * Files whose content changed and were written.
+     */
+    public int getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Files that were left untouched, because they already had the generated content.
+     */
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Files that were deleted, because they are no longer generated.
+     */
+    public int getDeleted() {
+        return deleted.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Time spent comparing and writing files, summed over all writing threads.
+     */
+    public long getWriteNanos() {
+        return writeNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return written + " written, " + skipped + " unchanged, " + deleted + " deleted";
+    }
+}
@@ -0,0 +1,122 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class BuildCacheTest {
+
+    private static final String TASK = ":openapiGeneratePetstoreSources";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<String, byte[]> entries = new ConcurrentHashMap<String, byte[]>();
+
+    private HttpServer cache;
+
+    /**
+     * Starts a stand-in of an HTTP build cache, keeping the entries in memory.
+     */
+    @Before
+    public void startCache() throws IOException {
+        cache = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        cache.createContext("/cache/", exchange -> {
+            try {
+                String key = exchange.getRequestURI().getPath();
+                if ("PUT".equals(exchange.getRequestMethod())) {
+                    entries.put(key, read(exchange.getRequestBody()));
+                    exchange.sendResponseHeaders(200, -1);
+                } else if (entries.containsKey(key)) {
+                    byte[] entry = entries.get(key);
+                    exchange.sendResponseHeaders(200, entry.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(entry);
+                    }
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        cache.start();
+    }
+
+    @After
+    public void stopCache() {
+        cache.stop(0);
+    }
+
+    /**
+     * The generated sources of a checkout in another directory are taken from the cache.
+     */
+    @Test
+    public void generatedSourcesAreRelocatable() throws IOException {
+        TestBuild first = project(temporaryFolder.newFolder("first", "petstore"));
+        assertEquals(TaskOutcome.SUCCESS, first.run(TASK, "--build-cache").task(TASK).getOutcome());
+        assertTrue(entries.size() > 0);
+
+        TestBuild second = project(temporaryFolder.newFolder("second", "checkout", "petstore"));
+        assertEquals(TaskOutcome.FROM_CACHE, second.run(TASK, "--build-cache").task(TASK).getOutcome());
+        assertTrue(second.file("build/generated/petstore/src/gen/model/Pet.txt").isFile());
+        assertTrue(second.file("build/generated/petstore/src/gen/api/PetsApi.txt").isFile());
+    }
+
+    private TestBuild project(File projectDir) throws IOException {
+        return new TestBuild(projectDir)
+                .petstore("spec/petstore.yaml")
+                .write("settings.gradle", ""
+                        + "rootProject.name = 'petstore'\n"
+                        + "buildCache {\n"
+                        + "    local {\n"
+                        + "        enabled = false\n"
+                        + "    }\n"
+                        + "    remote(HttpBuildCache) {\n"
+                        + "        url = 'http://127.0.0.1:" + cache.getAddress().getPort() + "/cache/'\n"
+                        + "        push = true\n"
+                        + "        allowInsecureProtocol = true\n"
+                        + "    }\n"
+                        + "}\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "openapiSources {\n"
+                        + "    petstore {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/petstore\")\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "}\n");
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
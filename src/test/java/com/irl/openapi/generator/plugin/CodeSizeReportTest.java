@@ -0,0 +1,186 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.swagger.codegen.ClientOptInput;
+
+public class CodeSizeReportTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * The generated files are counted in the category of the folder they were rendered into, and
+     * the largest classes are listed with their path in the output directory.
+     */
+    @Test
+    public void generatedFilesByCategory() throws IOException {
+        File output = temporaryFolder.newFolder("output");
+        CodegenSettings settings = new CodegenSettings();
+        settings.setLanguage(TestCodegen.NAME);
+        settings.setInputSpec(petstore());
+        settings.setOutput(output);
+        ClientOptInput input = settings.getCodegenConfigurator().toClientOptInput();
+        List<File> files = new CodegenGenerator(new GenerationOptions()).opts(input).generate();
+
+        Map<String, Object> report = CodeSizeReport.of(output, files, input.getConfig(), input.getOpenAPI()).toMap();
+        assertEquals(4, size(report, CodeSizeReport.MODELS, "files"));
+        assertEquals(3, size(report, CodeSizeReport.APIS, "files"));
+        assertEquals(0, size(report, CodeSizeReport.TESTS, "files"));
+        assertEquals(0, size(report, CodeSizeReport.DOCS, "files"));
+        assertEquals(files.size() - 7, size(report, CodeSizeReport.SUPPORTING_FILES, "files"));
+        long modelLines = 0;
+        for (String model : Arrays.asList("Pet", "Cat", "Order", "Store")) {
+            modelLines += lines(new File(output, "src/gen/model/" + model + ".txt"));
+        }
+        assertEquals(modelLines, size(report, CodeSizeReport.MODELS, "lines"));
+
+        List<Map<String, Object>> largestClasses = largestClasses(report);
+        assertEquals(7, largestClasses.size());
+        long previous = Long.MAX_VALUE;
+        for (Map<String, Object> largestClass : largestClasses) {
+            long lines = ((Number) largestClass.get("lines")).longValue();
+            assertTrue(lines <= previous);
+            previous = lines;
+            String path = (String) largestClass.get("path");
+            assertEquals(path, lines(new File(output, path)), lines);
+            assertEquals(path, path.startsWith("src/gen/model/") ? CodeSizeReport.MODELS : CodeSizeReport.APIS,
+                    largestClass.get("category"));
+        }
+    }
+
+    /**
+     * With models and apis in the same folder the api files are told apart by the names of the
+     * apis of the spec. Blank lines are not counted.
+     */
+    @Test
+    public void apisAndModelsInOneFolder() throws IOException {
+        File output = temporaryFolder.newFolder("output");
+        List<File> files = Arrays.asList(
+                write(new File(output, "src/PetsApi.txt"), "api PetsApi\n\n  get /pets\n   \n"),
+                write(new File(output, "src/Pet.txt"), "model Pet\n  name: String"));
+        TestCodegen config = new TestCodegen() {
+
+            @Override
+            public String apiFileFolder() {
+                return outputFolder + File.separator + "src";
+            }
+
+            @Override
+            public String modelFileFolder() {
+                return apiFileFolder();
+            }
+        };
+        config.setOutputDir(output.getAbsolutePath());
+
+        Map<String, Object> report = CodeSizeReport.of(output, files, config,
+                SpecPreprocessorsTest.parse(new String(Files.readAllBytes(petstore().toPath()), StandardCharsets.UTF_8)))
+                .toMap();
+        assertEquals(1, size(report, CodeSizeReport.APIS, "files"));
+        assertEquals(2, size(report, CodeSizeReport.APIS, "lines"));
+        assertEquals(1, size(report, CodeSizeReport.MODELS, "files"));
+        assertEquals(2, size(report, CodeSizeReport.MODELS, "lines"));
+    }
+
+    /**
+     * The aggregate report adds up the reports of the generator tasks, lists their totals largest
+     * first and names the task of each of the largest classes.
+     */
+    @Test
+    public void aggregateReport() throws IOException {
+        TestBuild build = new TestBuild(temporaryFolder.getRoot())
+                .petstore("spec/petstore.yaml")
+                .write("settings.gradle", "rootProject.name = 'petstore'\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "openapiSources {\n"
+                        + "    stores {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/stores\")\n"
+                        + "            apiTags = ['stores']\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "    petstore {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/petstore\")\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "}\n");
+        assertEquals(TaskOutcome.SUCCESS, build.run("openapiGenerateSources").task(":openapiGenerateSources").getOutcome());
+
+        Map<String, Object> petstore = CodeSizeReport.read(
+                build.file("build/openapi-codegen/openapiGeneratePetstoreSources/code-size.json"));
+        Map<String, Object> stores = CodeSizeReport.read(
+                build.file("build/openapi-codegen/openapiGenerateStoresSources/code-size.json"));
+        Map<String, Object> aggregate = CodeSizeReport.read(build.file("build/reports/openapi-codegen/code-size.json"));
+
+        Map<?, ?> tasks = (Map<?, ?>) aggregate.get("tasks");
+        assertEquals(Arrays.asList("openapiGeneratePetstoreSources", "openapiGenerateStoresSources"),
+                new ArrayList<Object>(tasks.keySet()));
+        assertEquals(petstore.get("total"), tasks.get("openapiGeneratePetstoreSources"));
+        assertEquals(stores.get("total"), tasks.get("openapiGenerateStoresSources"));
+        for (String figure : Arrays.asList("files", "lines", "bytes")) {
+            assertEquals(total(petstore, figure) + total(stores, figure), total(aggregate, figure));
+        }
+        for (Map<String, Object> largestClass : largestClasses(aggregate)) {
+            String path = (String) largestClass.get("path");
+            assertTrue(path, path.startsWith("openapiGeneratePetstoreSources:src/gen/")
+                    || path.startsWith("openapiGenerateStoresSources:src/gen/"));
+        }
+    }
+
+    private static long size(Map<String, Object> report, String category, String figure) {
+        Map<?, ?> categories = (Map<?, ?>) report.get("categories");
+        return ((Number) ((Map<?, ?>) categories.get(category)).get(figure)).longValue();
+    }
+
+    private static long total(Map<String, Object> report, String figure) {
+        return ((Number) ((Map<?, ?>) report.get("total")).get(figure)).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> largestClasses(Map<String, Object> report) {
+        return (List<Map<String, Object>>) report.get("largestClasses");
+    }
+
+    private static long lines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.trim().isEmpty()).count();
+    }
+
+    private static File write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static File petstore() {
+        try {
+            return new File(CodeSizeReportTest.class.getResource("/petstore.yaml").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
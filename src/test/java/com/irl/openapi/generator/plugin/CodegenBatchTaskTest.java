@@ -0,0 +1,65 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CodegenBatchTaskTest {
+
+    private static final String TASK = ":generateServiceClients";
+
+    private static final String OUTPUT = "build/generated/services/";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Every spec is generated into its own directory with the settings of the configuration file,
+     * and the directory of a removed spec is deleted.
+     */
+    @Test
+    public void specsAreGeneratedIntoTheirOwnDirectories() throws IOException {
+        TestBuild build = new TestBuild(temporaryFolder.getRoot())
+                .petstore("services/orders.yaml")
+                .petstore("services/stores.yaml")
+                .write("config.json", "{ \"modelNamePrefix\": \"Service\" }\n")
+                .write("settings.gradle", "rootProject.name = 'services'\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "tasks.register('generateServiceClients', com.irl.openapi.generator.plugin.CodegenBatchTask) {\n"
+                        + "    specs.from(fileTree('services').include('*.yaml'))\n"
+                        + "    threads = 2\n"
+                        + "    code {\n"
+                        + "        language = '" + TestCodegen.NAME + "'\n"
+                        + "        output = file(\"$buildDir/generated/services\")\n"
+                        + "        configurationFile = file('config.json').path\n"
+                        + "    }\n"
+                        + "}\n");
+
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        String pet = contents(build.file(OUTPUT + "orders/src/gen/model/Pet.txt"));
+        assertTrue(pet, pet.startsWith("model ServicePet"));
+        assertEquals(pet, contents(build.file(OUTPUT + "stores/src/gen/model/Pet.txt")));
+
+        assertTrue(build.file("services/stores.yaml").delete());
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        assertFalse(build.file(OUTPUT + "stores").exists());
+        assertEquals(pet, contents(build.file(OUTPUT + "orders/src/gen/model/Pet.txt")));
+    }
+
+    private static String contents(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
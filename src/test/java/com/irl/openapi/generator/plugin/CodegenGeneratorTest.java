@@ -0,0 +1,144 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CodegenGeneratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Generations with different options, each run several times at once, produce the same files
+     * as when they run one after the other.
+     */
+    @Test
+    public void concurrentGenerationsMatchSerialGenerations() throws Exception {
+        List<GenerationOptions> variants = Arrays.asList(
+                new GenerationOptions().apis("").models("").supportingFiles(""),
+                new GenerationOptions().apis(null).models("Pet,Cat").supportingFiles(null),
+                new GenerationOptions().apis("Pets").models(null).supportingFiles(null),
+                new GenerationOptions().apis(null).models(null).supportingFiles(""));
+
+        List<Map<String, String>> serial = new ArrayList<Map<String, String>>();
+        for (int i = 0; i < variants.size(); i++) {
+            File output = temporaryFolder.newFolder("serial-" + i);
+            generate(output, variants.get(i));
+            serial.add(contents(output));
+        }
+
+        int repetitions = 4;
+        CyclicBarrier start = new CyclicBarrier(variants.size() * repetitions);
+        List<Callable<Map<String, String>>> generations = new ArrayList<Callable<Map<String, String>>>();
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            for (int i = 0; i < variants.size(); i++) {
+                File output = temporaryFolder.newFolder("concurrent-" + repetition + "-" + i);
+                GenerationOptions options = variants.get(i);
+                generations.add(() -> {
+                    start.await();
+                    generate(output, options);
+                    return contents(output);
+                });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(generations.size());
+        try {
+            List<Future<Map<String, String>>> results = executor.invokeAll(generations);
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(serial.get(i % variants.size()), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (Map<String, String> files : serial) {
+            assertFalse(files.isEmpty());
+        }
+    }
+
+    /**
+     * Files whose contents did not change are not written again and keep their modification
+     * time, so the compile tasks after the generation see no change.
+     */
+    @Test
+    public void unchangedFilesAreNotWritten() throws Exception {
+        GenerationOptions options = new GenerationOptions().apis("").models("").supportingFiles("");
+        File output = temporaryFolder.newFolder("output");
+        generate(output, options);
+        Map<String, String> generated = contents(output);
+
+        FileTime lastModified = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000L);
+        for (String path : generated.keySet()) {
+            Files.setLastModifiedTime(new File(output, path).toPath(), lastModified);
+        }
+        File pet = new File(output, "src/gen/model/Pet.txt");
+        Files.write(pet.toPath(), "edited".getBytes(StandardCharsets.UTF_8));
+
+        WriteStatistics statistics = new WriteStatistics();
+        generate(output, options, statistics);
+        assertEquals(generated, contents(output));
+        assertEquals(1, statistics.getWritten());
+        // the generator leaves an existing ignore file alone without writing it
+        assertEquals(generated.size() - 2, statistics.getSkipped());
+        for (String path : generated.keySet()) {
+            File file = new File(output, path);
+            if (file.equals(pet)) {
+                assertNotEquals(lastModified, Files.getLastModifiedTime(file.toPath()));
+            } else {
+                assertEquals(path, lastModified, Files.getLastModifiedTime(file.toPath()));
+            }
+        }
+    }
+
+    static void generate(File output, GenerationOptions options) throws URISyntaxException {
+        generate(output, options, new WriteStatistics());
+    }
+
+    static void generate(File output, GenerationOptions options, WriteStatistics statistics)
+            throws URISyntaxException {
+        CodegenSettings settings = new CodegenSettings();
+        settings.setLanguage(TestCodegen.NAME);
+        settings.setInputSpec(new File(CodegenGeneratorTest.class.getResource("/petstore.yaml").toURI()));
+        settings.setOutput(output);
+        new CodegenGenerator(options, null, statistics)
+                .opts(options.apply(settings.getCodegenConfigurator()::toClientOptInput))
+                .generate();
+    }
+
+    static Map<String, String> contents(File directory) throws IOException {
+        Path root = directory.toPath();
+        try (Stream<Path> files = Files.walk(root)) {
+            Map<String, String> contents = new TreeMap<String, String>();
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                contents.put(root.relativize(file).toString().replace(File.separatorChar, '/'),
+                        new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+            return contents;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.swagger.codegen.config.CodegenConfigurator;
+
+public class CodegenSettingsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * The copy of the configurator of a batch is the configurator of the spec, and the
+     * generation of one spec does not change the configurator of the others.
+     */
+    @Test
+    public void batchConfiguratorCopy() throws IOException, IllegalAccessException {
+        File config = temporaryFolder.newFile("config.json");
+        Files.write(config.toPath(), "{ \"modelNamePrefix\": \"Service\", \"hideGenerationTimestamp\": true }"
+                .getBytes(StandardCharsets.UTF_8));
+        CodegenSettings settings = new CodegenSettings();
+        settings.setLanguage(TestCodegen.NAME);
+        settings.setOutput(temporaryFolder.getRoot());
+        settings.setConfigurationFile(config.getPath());
+        settings.setTypeMappings(Arrays.asList("DateTime=Instant"));
+        settings.setAdditionalProperties(Arrays.asList("serializable=true"));
+        CodegenConfigurator configurator = settings.getCodegenConfigurator();
+
+        CodegenSettings specSettings = settings.forSpec(new File("orders.yaml"),
+                new File(temporaryFolder.getRoot(), "orders"));
+        CodegenConfigurator copy = CodegenSettings.forSpec(configurator, specSettings);
+        CodegenConfigurator expected = specSettings.getCodegenConfigurator();
+        for (Field field : CodegenConfigurator.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                assertEquals(field.getName(), field.get(expected), field.get(copy));
+            }
+        }
+
+        copy.addAdditionalProperty("modified", true);
+        assertFalse(configurator.getAdditionalProperties().containsKey("modified"));
+    }
+}
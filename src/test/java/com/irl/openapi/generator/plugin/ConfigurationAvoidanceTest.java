@@ -0,0 +1,60 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ConfigurationAvoidanceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Builds that do not generate sources do not create the generator tasks of the specs.
+     */
+    @Test
+    public void helpRealizesNoCodegenTasks() throws IOException {
+        TestBuild build = new TestBuild(temporaryFolder.newFolder("petstore"))
+                .petstore("spec/petstore.yaml")
+                .write("settings.gradle", "rootProject.name = 'petstore'\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'java'\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "openapiSources {\n"
+                        + "    petstore {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/petstore\")\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "    stores {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/stores\")\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "}\n"
+                        + "def realized = []\n"
+                        + "tasks.withType(com.irl.openapi.generator.plugin.CodegenTask).configureEach {\n"
+                        + "    realized << it.name\n"
+                        + "}\n"
+                        + "gradle.taskGraph.whenReady {\n"
+                        + "    println \"Realized generator tasks: $realized\"\n"
+                        + "}\n");
+
+        BuildResult help = build.run("help");
+        assertTrue(help.getOutput(), help.getOutput().contains("Realized generator tasks: []"));
+
+        BuildResult generate = build.run("openapiGeneratePetstoreSources");
+        assertTrue(generate.getOutput(), generate.getOutput().contains("Realized generator tasks: [openapiGeneratePetstoreSources]"));
+    }
+}
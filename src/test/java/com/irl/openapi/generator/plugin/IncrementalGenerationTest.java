@@ -0,0 +1,87 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalGenerationTest {
+
+    private static final String TASK = ":openapiGeneratePetstoreSources";
+
+    private static final String OUTPUT = "build/generated/petstore/src/gen/";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Changing the operation filter regenerates, though the spec file stayed the same.
+     */
+    @Test
+    public void filterChangeRegenerates() throws IOException {
+        TestBuild build = project(temporaryFolder.getRoot(), "");
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        assertTrue(build.file(OUTPUT + "api/PetsApi.txt").isFile());
+        assertTrue(build.file(OUTPUT + "api/DefaultApi.txt").isFile());
+
+        project(temporaryFolder.getRoot(), "            apiTags = ['stores']\n");
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        assertFalse(build.file(OUTPUT + "api/PetsApi.txt").exists());
+        assertFalse(build.file(OUTPUT + "api/DefaultApi.txt").exists());
+        assertTrue(build.file(OUTPUT + "api/StoresApi.txt").isFile());
+    }
+
+    /**
+     * Generated files that were edited or deleted are restored, though the spec and the settings
+     * did not change.
+     */
+    @Test
+    public void modifiedFilesAreRestored() throws IOException {
+        TestBuild build = project(temporaryFolder.getRoot(), "");
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        String pet = contents(build.file(OUTPUT + "model/Pet.txt"));
+
+        build.write(OUTPUT + "model/Pet.txt", "edited");
+        assertTrue(build.file(OUTPUT + "api/StoresApi.txt").delete());
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        assertEquals(pet, contents(build.file(OUTPUT + "model/Pet.txt")));
+        assertTrue(build.file(OUTPUT + "api/StoresApi.txt").isFile());
+
+        build.write(OUTPUT + "model/Pet.txt", "edited");
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK, "--rerun-tasks").task(TASK).getOutcome());
+        assertEquals(pet, contents(build.file(OUTPUT + "model/Pet.txt")));
+    }
+
+    private static TestBuild project(File projectDir, String settings) throws IOException {
+        return new TestBuild(projectDir)
+                .petstore("spec/petstore.yaml")
+                .write("settings.gradle", "rootProject.name = 'petstore'\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "openapiSources {\n"
+                        + "    petstore {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/petstore\")\n"
+                        + settings
+                        + "        }\n"
+                        + "    }\n"
+                        + "}\n");
+    }
+
+    private static String contents(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.swagger.codegen.CodegenConfigLoader;
+import io.swagger.codegen.CodegenType;
+import io.swagger.codegen.DefaultCodegen;
+
+public class LanguageLoaderTest {
+
+    @Test
+    public void sourceFolderIsTheDefaultOfTheLanguage() {
+        assertEquals("src/gen", LanguageLoader.sourceFolder(TestCodegen.NAME));
+        assertEquals("", LanguageLoader.sourceFolder(null));
+    }
+
+    /**
+     * Looking up a language instantiates no other registered generator.
+     */
+    @Test
+    public void onlyTheRequestedLanguageIsInstantiated() {
+        int instances = CountingCodegen.INSTANCES.get();
+        assertEquals(TestCodegen.NAME, LanguageLoader.with(TestCodegen.NAME,
+                () -> CodegenConfigLoader.forName(TestCodegen.NAME)).getName());
+        assertEquals(instances, CountingCodegen.INSTANCES.get());
+
+        assertEquals(CountingCodegen.NAME, LanguageLoader.with(CountingCodegen.NAME,
+                () -> CodegenConfigLoader.forName(CountingCodegen.NAME)).getName());
+        assertEquals(CountingCodegen.NAME, LanguageLoader.with(CountingCodegen.NAME,
+                () -> CodegenConfigLoader.forName(CountingCodegen.NAME)).getName());
+        assertEquals(TestCodegen.NAME, LanguageLoader.with(TestCodegen.NAME,
+                () -> CodegenConfigLoader.forName(TestCodegen.NAME)).getName());
+        // once to find its name, then once per lookup by swagger-codegen
+        assertEquals(instances + 3, CountingCodegen.INSTANCES.get());
+    }
+
+    /**
+     * A second registered language, counting its instances.
+     */
+    public static class CountingCodegen extends DefaultCodegen {
+
+        static final String NAME = "counting";
+
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public CountingCodegen() {
+            INSTANCES.incrementAndGet();
+        }
+
+        @Override
+        public CodegenType getTag() {
+            return CodegenType.OTHER;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public String getHelp() {
+            return "Counts its instances.";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.swagger.codegen.ClientOptInput;
+
+public class ParallelGenerationTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * A generation on four threads writes the same files as a serial one, including the allOf
+     * hierarchy of Cat and Pet, which the generator links while processing the models.
+     */
+    @Test
+    public void parallelGenerationMatchesSerialGeneration() throws Exception {
+        GenerationOptions options = new GenerationOptions().apis("").models("").supportingFiles("");
+
+        File serialOutput = temporaryFolder.newFolder("serial");
+        CodegenGeneratorTest.generate(serialOutput, options);
+        Map<String, String> serial = CodegenGeneratorTest.contents(serialOutput);
+
+        File parallelOutput = temporaryFolder.newFolder("parallel");
+        CodegenSettings settings = settings(parallelOutput);
+        Function<GenerationOptions, ClientOptInput> inputs = inputOptions -> inputOptions.apply(
+                settings.getCodegenConfigurator()::toClientOptInput);
+        new ParallelGeneration(4, inputs, CodegenGenerator::new).generate(inputs.apply(options), options);
+        Map<String, String> parallel = CodegenGeneratorTest.contents(parallelOutput);
+
+        assertEquals(serial, parallel);
+        assertTrue(parallel.get("src/gen/model/Pet.txt").contains("subtype Cat"));
+        assertTrue(parallel.get("src/gen/model/Cat.txt").contains("extends Pet"));
+    }
+
+    private static CodegenSettings settings(File output) throws URISyntaxException {
+        CodegenSettings settings = new CodegenSettings();
+        settings.setLanguage(TestCodegen.NAME);
+        settings.setInputSpec(new File(ParallelGenerationTest.class.getResource("/petstore.yaml").toURI()));
+        settings.setOutput(output);
+        return settings;
+    }
+}
@@ -0,0 +1,164 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class ScopedSystemPropertiesTest {
+
+    private static final String KEY = "openapi-codegen.test";
+
+    @Test
+    public void everyReadSeesTheOverlay() {
+        Properties system = System.getProperties();
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(KEY, "scoped");
+        properties.put("java.version", null);
+
+        ScopedSystemProperties.with(properties, () -> {
+            Properties scoped = System.getProperties();
+            assertEquals("scoped", System.getProperty(KEY));
+            assertEquals("scoped", scoped.getOrDefault(KEY, "default"));
+            assertTrue(scoped.keySet().contains(KEY));
+            assertTrue(scoped.stringPropertyNames().contains(KEY));
+            assertFalse(scoped.stringPropertyNames().contains("java.version"));
+            assertEquals(system.size(), scoped.size());
+
+            Map<Object, Object> all = new HashMap<Object, Object>();
+            scoped.forEach(all::put);
+            assertEquals("scoped", all.get(KEY));
+            assertFalse(all.containsKey("java.version"));
+            return null;
+        });
+
+        assertNull(System.getProperty(KEY));
+        assertSame(system, System.getProperties());
+    }
+
+    @Test
+    public void writesStayInTheScope() {
+        ScopedSystemProperties.with(Collections.<String, String>emptyMap(), () -> {
+            System.setProperty(KEY, "written");
+            System.getProperties().putAll(Collections.singletonMap(KEY + ".all", "written"));
+            assertEquals("written", System.getProperty(KEY));
+            assertEquals("written", System.getProperty(KEY + ".all"));
+            return null;
+        });
+
+        assertNull(System.getProperty(KEY));
+        assertNull(System.getProperty(KEY + ".all"));
+    }
+
+    @Test
+    public void otherThreadsDoNotSeeTheOverlay() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch checked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> scoped = executor.submit(() -> ScopedSystemProperties.with(
+                    Collections.singletonMap(KEY, "scoped"), () -> {
+                        entered.countDown();
+                        try {
+                            checked.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return System.getProperty(KEY);
+                    }));
+
+            entered.await();
+            assertNull(System.getProperty(KEY));
+            assertFalse(System.getProperties().stringPropertyNames().contains(KEY));
+            System.setProperty(KEY + ".unscoped", "unscoped");
+            checked.countDown();
+
+            assertEquals("scoped", scoped.get());
+            assertEquals("unscoped", System.getProperty(KEY + ".unscoped"));
+        } finally {
+            System.clearProperty(KEY + ".unscoped");
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Scopes of two copies of the class, as when the plugin is loaded by two classloaders, each
+     * see only their own overlay, and the regular properties are installed again when both
+     * ended, even if the first one ends first.
+     */
+    @Test
+    public void scopesOfTwoClassLoaders() throws Exception {
+        System.getProperty(KEY);
+        Properties system = System.getProperties();
+
+        URL classes = ScopedSystemProperties.class.getProtectionDomain().getCodeSource().getLocation();
+        CountDownLatch firstEntered = new CountDownLatch(1);
+        CountDownLatch secondEntered = new CountDownLatch(1);
+        CountDownLatch firstExited = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classes }, ClassLoader.getSystemClassLoader().getParent())) {
+            Class<?> copy = loader.loadClass(ScopedSystemProperties.class.getName());
+            assertFalse(copy == ScopedSystemProperties.class);
+            Method with = copy.getDeclaredMethod("with", Map.class, Supplier.class);
+            with.setAccessible(true);
+
+            Future<String> first = executor.submit(() -> {
+                try {
+                    return ScopedSystemProperties.with(Collections.singletonMap(KEY, "first"), () -> {
+                        firstEntered.countDown();
+                        await(secondEntered);
+                        return System.getProperty(KEY) + "," + System.getProperty(KEY + ".second");
+                    });
+                } finally {
+                    firstExited.countDown();
+                }
+            });
+            Future<String> second = executor.submit(() -> {
+                await(firstEntered);
+                Supplier<String> action = () -> {
+                    secondEntered.countDown();
+                    await(firstExited);
+                    return System.getProperty(KEY) + "," + System.getProperty(KEY + ".second");
+                };
+                try {
+                    return (String) with.invoke(null, Collections.singletonMap(KEY + ".second", "second"), action);
+                } catch (InvocationTargetException e) {
+                    throw (Exception) e.getCause();
+                }
+            });
+
+            assertEquals("first,null", first.get());
+            assertEquals("null,second", second.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertNull(System.getProperty(KEY));
+        assertSame(system, System.getProperties());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class SpecDownloadTest {
+
+    private static final String ETAG = "\"petstore-1\"";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * The status of every response of the registry.
+     */
+    private final List<Integer> responses = new CopyOnWriteArrayList<Integer>();
+
+    private HttpServer registry;
+
+    /**
+     * Starts a stand-in of a spec registry, serving the petstore spec with an {@code ETag}.
+     */
+    @Before
+    public void startRegistry() throws IOException {
+        byte[] spec;
+        try (InputStream in = SpecDownloadTest.class.getResourceAsStream("/petstore.yaml")) {
+            spec = IOUtils.toByteArray(in);
+        }
+
+        registry = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        registry.createContext("/specs/petstore.yaml", exchange -> {
+            try {
+                if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    responses.add(304);
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    responses.add(200);
+                    exchange.getResponseHeaders().set("ETag", ETAG);
+                    exchange.sendResponseHeaders(200, spec.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(spec);
+                    }
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        registry.start();
+    }
+
+    @After
+    public void stopRegistry() {
+        registry.stop(0);
+    }
+
+    /**
+     * The spec is downloaded once, later builds only ask whether it changed, and offline builds
+     * use the cached copy.
+     */
+    @Test
+    public void downloadsAreCached() throws IOException {
+        TestBuild build = new TestBuild(temporaryFolder.newFolder("petstore"))
+                .write("settings.gradle", "rootProject.name = 'petstore'\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "openapiSources {\n"
+                        + "    petstore {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpecUrl = 'http://127.0.0.1:" + registry.getAddress().getPort() + "/specs/petstore.yaml'\n"
+                        + "            output = file(\"$buildDir/generated/petstore\")\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "}\n");
+        String task = ":openapiGeneratePetstoreSources";
+
+        assertEquals(TaskOutcome.SUCCESS, build.run(task).task(task).getOutcome());
+        assertEquals(1, responses.size());
+        assertEquals(200, (int) responses.get(0));
+
+        assertEquals(TaskOutcome.UP_TO_DATE, build.run(task).task(task).getOutcome());
+        assertEquals(2, responses.size());
+        assertEquals(304, (int) responses.get(1));
+
+        registry.stop(0);
+        FileUtils.deleteDirectory(build.file("build"));
+        assertEquals(TaskOutcome.SUCCESS, build.run(task, "--offline").task(task).getOutcome());
+        assertEquals(2, responses.size());
+        assertTrue(build.file("build/generated/petstore/src/gen/model/Pet.txt").isFile());
+    }
+}
@@ -0,0 +1,394 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+
+public class SpecPreprocessorsTest {
+
+    private static final String SPEC = ""
+            + "openapi: 3.0.0\n"
+            + "info:\n"
+            + "  title: Petstore\n"
+            + "  version: 1.0.0\n"
+            + "  x-internal-owner: pets-team\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    get:\n"
+            + "      operationId: listPets\n"
+            + "      x-internal-audit: true\n"
+            + "      x-rate-limit: 10\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: The pets\n"
+            + "          content:\n"
+            + "            application/json:\n"
+            + "              schema:\n"
+            + "                type: object\n"
+            + "                properties:\n"
+            + "                  pets:\n"
+            + "                    type: array\n"
+            + "                    items:\n"
+            + "                      $ref: '#/components/schemas/Pet'\n"
+            + "components:\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "      properties:\n"
+            + "        name:\n"
+            + "          type: string\n"
+            + "          x-internal-column: pet_name\n";
+
+    private static final String APIS = ""
+            + "openapi: 3.0.0\n"
+            + "info:\n"
+            + "  title: Petstore\n"
+            + "  version: 1.0.0\n"
+            + "tags:\n"
+            + "  - name: pets\n"
+            + "  - name: stores\n"
+            + "paths:\n"
+            + "  /pets:\n"
+            + "    get:\n"
+            + "      tags: [pets]\n"
+            + "      operationId: listPets\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: The pets\n"
+            + "          content:\n"
+            + "            application/json:\n"
+            + "              schema:\n"
+            + "                $ref: '#/components/schemas/Pet'\n"
+            + "    post:\n"
+            + "      tags: [pets]\n"
+            + "      operationId: createPet\n"
+            + "      requestBody:\n"
+            + "        $ref: '#/components/requestBodies/NewPet'\n"
+            + "      responses:\n"
+            + "        '201':\n"
+            + "          description: Created\n"
+            + "  /pets/{id}:\n"
+            + "    get:\n"
+            + "      tags: [pets]\n"
+            + "      operationId: getPet\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: The pet\n"
+            + "  /stores:\n"
+            + "    get:\n"
+            + "      tags: [stores]\n"
+            + "      operationId: listStores\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: The stores\n"
+            + "          content:\n"
+            + "            application/json:\n"
+            + "              schema:\n"
+            + "                $ref: '#/components/schemas/Store'\n"
+            + "  /health:\n"
+            + "    get:\n"
+            + "      operationId: health\n"
+            + "      responses:\n"
+            + "        '200':\n"
+            + "          description: Healthy\n"
+            + "components:\n"
+            + "  requestBodies:\n"
+            + "    NewPet:\n"
+            + "      content:\n"
+            + "        application/json:\n"
+            + "          schema:\n"
+            + "            $ref: '#/components/schemas/NewPet'\n"
+            + "  schemas:\n"
+            + "    Pet:\n"
+            + "      type: object\n"
+            + "      discriminator:\n"
+            + "        propertyName: petType\n"
+            + "        mapping:\n"
+            + "          fish: '#/components/schemas/Fish'\n"
+            + "      properties:\n"
+            + "        petType:\n"
+            + "          type: string\n"
+            + "        owner:\n"
+            + "          $ref: '#/components/schemas/Owner'\n"
+            + "    Cat:\n"
+            + "      allOf:\n"
+            + "        - $ref: '#/components/schemas/Pet'\n"
+            + "        - type: object\n"
+            + "          properties:\n"
+            + "            indoor:\n"
+            + "              type: boolean\n"
+            + "    Fish:\n"
+            + "      type: object\n"
+            + "    Owner:\n"
+            + "      type: object\n"
+            + "    NewPet:\n"
+            + "      type: object\n"
+            + "    Store:\n"
+            + "      type: object\n"
+            + "      properties:\n"
+            + "        address:\n"
+            + "          $ref: '#/components/schemas/Address'\n"
+            + "    Address:\n"
+            + "      type: object\n"
+            + "    Unused:\n"
+            + "      type: object\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Without prefixes every {@code x-} extension is removed, also those of the paths and the
+     * responses, which are maps themselves.
+     */
+    @Test
+    public void stripAllVendorExtensions() {
+        OpenAPI openAPI = withMapExtensions(parse(SPEC));
+        assertTrue(openAPI.getInfo().getExtensions().containsKey("x-internal-owner"));
+        assertEquals(2, listPets(openAPI).getExtensions().size());
+        assertTrue(property(openAPI, "Pet", "name").getExtensions().containsKey("x-internal-column"));
+        SpecPreprocessors.apply(Collections.singletonList(
+                SpecPreprocessors.stripVendorExtensions(Collections.<String>emptyList())), openAPI);
+
+        assertEmpty(openAPI.getInfo().getExtensions());
+        assertEmpty(openAPI.getPaths().getExtensions());
+        assertEmpty(listPets(openAPI).getExtensions());
+        assertEmpty(listPets(openAPI).getResponses().getExtensions());
+        assertEmpty(property(openAPI, "Pet", "name").getExtensions());
+    }
+
+    /**
+     * With prefixes only the matching extensions are removed.
+     */
+    @Test
+    public void stripVendorExtensionsWithPrefix() {
+        OpenAPI openAPI = withMapExtensions(parse(SPEC));
+        SpecPreprocessors.apply(Collections.singletonList(
+                SpecPreprocessors.stripVendorExtensions(Arrays.asList("x-internal-"))), openAPI);
+
+        assertEmpty(openAPI.getInfo().getExtensions());
+        assertEmpty(openAPI.getPaths().getExtensions());
+        assertEquals(Collections.singleton("x-rate-limit"), listPets(openAPI).getExtensions().keySet());
+        assertEmpty(listPets(openAPI).getResponses().getExtensions());
+        assertEmpty(property(openAPI, "Pet", "name").getExtensions());
+    }
+
+    /**
+     * An inline object schema becomes a component referenced from where it was.
+     */
+    @Test
+    public void flattenInlineSchemas() {
+        OpenAPI openAPI = parse(SPEC);
+        SpecPreprocessors.apply(Collections.singletonList(SpecPreprocessors.flattenInlineSchemas()), openAPI);
+
+        Schema<?> response = listPets(openAPI).getResponses().get("200").getContent()
+                .get("application/json").getSchema();
+        assertNotNull(response.get$ref());
+        String name = response.get$ref().substring("#/components/schemas/".length());
+        Schema<?> flattened = openAPI.getComponents().getSchemas().get(name);
+        assertNotNull(name, flattened);
+        assertTrue(flattened.getProperties().containsKey("pets"));
+        assertEquals(2, openAPI.getComponents().getSchemas().size());
+    }
+
+    /**
+     * The paths, components and tags of a fragment are added, and components defined the same
+     * way in both files are fine.
+     */
+    @Test
+    public void mergeFragments() throws IOException {
+        File fragment = write("stores.yaml", ""
+                + "openapi: 3.0.0\n"
+                + "info:\n"
+                + "  title: Stores\n"
+                + "  version: 1.0.0\n"
+                + "tags:\n"
+                + "  - name: stores\n"
+                + "paths:\n"
+                + "  /stores:\n"
+                + "    get:\n"
+                + "      tags: [stores]\n"
+                + "      operationId: listStores\n"
+                + "      responses:\n"
+                + "        '200':\n"
+                + "          description: The stores\n"
+                + "components:\n"
+                + "  schemas:\n"
+                + "    Store:\n"
+                + "      type: object\n"
+                + "    Pet:\n"
+                + "      type: object\n"
+                + "      properties:\n"
+                + "        name:\n"
+                + "          type: string\n"
+                + "          x-internal-column: pet_name\n");
+        OpenAPI openAPI = parse(SPEC);
+        SpecPreprocessors.apply(Collections.singletonList(
+                SpecPreprocessors.merge(Collections.singletonList(fragment))), openAPI);
+
+        assertEquals(Arrays.asList("/pets", "/stores"), Arrays.asList(openAPI.getPaths().keySet().toArray()));
+        assertEquals(Arrays.asList("Pet", "Store"),
+                Arrays.asList(openAPI.getComponents().getSchemas().keySet().toArray()));
+        assertEquals("stores", openAPI.getTags().get(0).getName());
+    }
+
+    /**
+     * A component defined differently in a fragment is an error naming the component and the
+     * fragment.
+     */
+    @Test
+    public void mergeConflictFails() throws IOException {
+        File fragment = write("pets.yaml", ""
+                + "openapi: 3.0.0\n"
+                + "info:\n"
+                + "  title: Pets\n"
+                + "  version: 1.0.0\n"
+                + "paths: {}\n"
+                + "components:\n"
+                + "  schemas:\n"
+                + "    Pet:\n"
+                + "      type: string\n");
+        OpenAPI openAPI = parse(SPEC);
+        List<SpecPreprocessor> preprocessors = Collections.singletonList(
+                SpecPreprocessors.merge(Collections.singletonList(fragment)));
+        try {
+            SpecPreprocessors.apply(preprocessors, openAPI);
+            fail("The conflicting Pet schema was merged");
+        } catch (IllegalStateException e) {
+            assertEquals("Schema Pet of " + fragment + " is already defined differently", e.getMessage());
+        }
+    }
+
+    /**
+     * Only the operations with one of the tags are kept, untagged operations have the tag
+     * {@code default}, and tags no operation uses any more are removed.
+     */
+    @Test
+    public void filterByTag() {
+        OpenAPI openAPI = filter(SpecPreprocessors.filterTags(Arrays.asList("stores")));
+        assertEquals(set("/stores"), openAPI.getPaths().keySet());
+        assertEquals(1, openAPI.getTags().size());
+        assertEquals("stores", openAPI.getTags().get(0).getName());
+
+        openAPI = filter(SpecPreprocessors.filterTags(Arrays.asList("default")));
+        assertEquals(set("/health"), openAPI.getPaths().keySet());
+        assertEquals(Collections.emptyList(), openAPI.getTags());
+    }
+
+    @Test
+    public void filterByPathPrefix() {
+        OpenAPI openAPI = filter(SpecPreprocessors.filterApis(Collections.<String>emptyList(),
+                Arrays.asList("/pets"), Collections.<String>emptyList(), false));
+        assertEquals(set("/pets", "/pets/{id}"), openAPI.getPaths().keySet());
+
+        openAPI = filter(SpecPreprocessors.filterApis(Collections.<String>emptyList(),
+                Arrays.asList("/pets/", "/health"), Collections.<String>emptyList(), false));
+        assertEquals(set("/pets/{id}", "/health"), openAPI.getPaths().keySet());
+    }
+
+    /**
+     * The criteria are combined, and the other operations of a path with a kept operation are
+     * removed from it.
+     */
+    @Test
+    public void filterByOperationId() {
+        OpenAPI openAPI = filter(SpecPreprocessors.filterApis(Arrays.asList("pets"),
+                Collections.<String>emptyList(), Arrays.asList("createPet", "listStores"), false));
+        assertEquals(set("/pets"), openAPI.getPaths().keySet());
+        assertNull(openAPI.getPaths().get("/pets").getGet());
+        assertEquals("createPet", openAPI.getPaths().get("/pets").getPost().getOperationId());
+        assertEquals(8, openAPI.getComponents().getSchemas().size());
+    }
+
+    /**
+     * The schemas reached from the kept operations are kept, through other components and
+     * schemas, with the subtypes of a schema with a discriminator and its mapped schemas.
+     */
+    @Test
+    public void pruneModels() {
+        OpenAPI openAPI = filter(SpecPreprocessors.filterApis(Arrays.asList("pets"),
+                Collections.<String>emptyList(), Collections.<String>emptyList(), true));
+        assertEquals(set("Pet", "Cat", "Fish", "Owner", "NewPet"), openAPI.getComponents().getSchemas().keySet());
+
+        openAPI = filter(SpecPreprocessors.filterApis(Collections.<String>emptyList(),
+                Collections.<String>emptyList(), Arrays.asList("createPet"), true));
+        assertEquals(set("NewPet"), openAPI.getComponents().getSchemas().keySet());
+
+        openAPI = filter(SpecPreprocessors.filterTags(Arrays.asList("stores", "default")));
+        assertEquals(8, openAPI.getComponents().getSchemas().size());
+        openAPI = filter(SpecPreprocessors.filterApis(Arrays.asList("stores", "default"),
+                Collections.<String>emptyList(), Collections.<String>emptyList(), true));
+        assertEquals(set("Store", "Address"), openAPI.getComponents().getSchemas().keySet());
+    }
+
+    static OpenAPI parse(String spec) {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        OpenAPI openAPI = new OpenAPIV3Parser().readContents(spec, null, options).getOpenAPI();
+        assertNotNull(openAPI);
+        return openAPI;
+    }
+
+    /**
+     * The parser drops the extensions of the paths and the responses, a model built or
+     * changed in code may still have them.
+     */
+    private static OpenAPI withMapExtensions(OpenAPI openAPI) {
+        openAPI.getPaths().addExtension("x-internal-paths", true);
+        listPets(openAPI).getResponses().addExtension("x-internal-responses", true);
+        return openAPI;
+    }
+
+    private static OpenAPI filter(SpecPreprocessor filter) {
+        OpenAPI openAPI = parse(APIS);
+        SpecPreprocessors.apply(Collections.singletonList(filter), openAPI);
+        return openAPI;
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<String>(Arrays.asList(values));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(temporaryFolder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Operation listPets(OpenAPI openAPI) {
+        return openAPI.getPaths().get("/pets").getGet();
+    }
+
+    private static Schema<?> property(OpenAPI openAPI, String schema, String property) {
+        Schema<?> parent = openAPI.getComponents().getSchemas().get(schema);
+        return parent.getProperties().get(property);
+    }
+
+    private static void assertEmpty(Map<String, Object> extensions) {
+        if (extensions != null) {
+            assertEquals(Collections.emptyMap(), extensions);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpecReferencesTest {
+
+    private static final String TASK = ":openapiGeneratePetstoreSources";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void quotedEscapedAndEncodedReferences() throws IOException {
+        TestBuild build = new TestBuild(temporaryFolder.getRoot())
+                .write("spec.json", "{ \"a\": { \"$ref\": \"schemas\\/a.json#\\/A\" },"
+                        + " \"b\": { \"$ref\": \"schemas\\u002fb.json\" } }")
+                .write("spec.yaml", ""
+                        + "a:\n"
+                        + "  $ref: 'schemas/it''s.yaml'\n"
+                        + "b:\n"
+                        + "  $ref: schemas/pet%20type.yaml#/Pet\n"
+                        + "c:\n"
+                        + "  $ref: '#/components/schemas/C'\n"
+                        + "d:\n"
+                        + "  $ref: 'https://example.com/d.yaml'\n");
+        File schemas = build.file("schemas").getCanonicalFile();
+
+        assertEquals(new LinkedHashSet<File>(Arrays.asList(new File(schemas, "a.json"), new File(schemas, "b.json"))),
+                SpecReferences.direct(build.file("spec.json")));
+        assertEquals(new LinkedHashSet<File>(Arrays.asList(new File(schemas, "it's.yaml"), new File(schemas, "pet type.yaml"))),
+                SpecReferences.direct(build.file("spec.yaml")));
+    }
+
+    /**
+     * A change to a referenced file reruns the generation, also to a file referenced since the
+     * task graph was stored in the configuration cache. Searching the files does not make the
+     * configuration cache entry depend on them.
+     */
+    @Test
+    public void referencedFileChangeReruns() throws IOException {
+        TestBuild build = new TestBuild(temporaryFolder.getRoot())
+                .write("settings.gradle", "rootProject.name = 'petstore'\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "openapiSources {\n"
+                        + "    petstore {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/petstore\")\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "}\n")
+                .write("spec/petstore.yaml", ""
+                        + "openapi: 3.0.0\n"
+                        + "info:\n"
+                        + "  title: Petstore\n"
+                        + "  version: 1.0.0\n"
+                        + "paths:\n"
+                        + "  /pets:\n"
+                        + "    get:\n"
+                        + "      tags: [pets]\n"
+                        + "      operationId: listPets\n"
+                        + "      responses:\n"
+                        + "        '200':\n"
+                        + "          description: The pets\n"
+                        + "          content:\n"
+                        + "            application/json:\n"
+                        + "              schema:\n"
+                        + "                $ref: '#/components/schemas/Pet'\n"
+                        + "components:\n"
+                        + "  schemas:\n"
+                        + "    Pet:\n"
+                        + "      $ref: 'schemas/pet.yaml'\n")
+                .write("spec/schemas/pet.yaml", pet(""));
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK, "--configuration-cache").task(TASK).getOutcome());
+        assertEquals(TaskOutcome.UP_TO_DATE, build.run(TASK, "--configuration-cache").task(TASK).getOutcome());
+
+        build.write("spec/schemas/owner.yaml", owner("name"))
+                .write("spec/schemas/pet.yaml", pet("    owner:\n      $ref: 'owner.yaml'\n"));
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK, "--configuration-cache").task(TASK).getOutcome());
+
+        // the files are searched again, though the task graph comes from the cache
+        build.write("spec/schemas/owner.yaml", owner("fullName"));
+        BuildResult result = build.run(TASK, "--configuration-cache");
+        assertTrue(result.getOutput().contains("Configuration cache entry reused."));
+        assertEquals(TaskOutcome.SUCCESS, result.task(TASK).getOutcome());
+        assertEquals(TaskOutcome.UP_TO_DATE, build.run(TASK, "--configuration-cache").task(TASK).getOutcome());
+    }
+
+    private static String pet(String properties) {
+        return ""
+                + "type: object\n"
+                + "properties:\n"
+                + "    name:\n"
+                + "      type: string\n"
+                + properties;
+    }
+
+    private static String owner(String property) {
+        return ""
+                + "type: object\n"
+                + "properties:\n"
+                + "    " + property + ":\n"
+                + "      type: string\n";
+    }
+}
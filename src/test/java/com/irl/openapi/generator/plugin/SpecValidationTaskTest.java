@@ -0,0 +1,123 @@
+package com.irl.openapi.generator.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpecValidationTaskTest {
+
+    private static final String TASK = ":openapiValidatePetstore";
+
+    private static final String REPORT = "build/reports/openapi-codegen/openapiValidatePetstore.txt";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * A valid spec passes with an empty report, and the task is up-to-date until the spec changes.
+     */
+    @Test
+    public void validSpecPasses() throws IOException {
+        TestBuild build = project(temporaryFolder.getRoot(), "").petstore("spec/petstore.yaml");
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        assertEquals(Collections.emptyList(), lines(build.file(REPORT)));
+        assertEquals(TaskOutcome.UP_TO_DATE, build.run(TASK).task(TASK).getOutcome());
+    }
+
+    /**
+     * Errors fail the task, and every problem is reported with its location.
+     */
+    @Test
+    public void errorsFail() throws IOException {
+        TestBuild build = project(temporaryFolder.getRoot(), "")
+                .write("spec/petstore.yaml", ""
+                        + "openapi: 3.0.0\n"
+                        + "info:\n"
+                        + "  title: Petstore\n"
+                        + "  version: 1.0.0\n"
+                        + "  summary: Pets\n"
+                        + "paths:\n"
+                        + "  /pets:\n"
+                        + "    get:\n"
+                        + "      operationId: listPets\n");
+        BuildResult result = build.runAndFail(TASK);
+        assertEquals(TaskOutcome.FAILED, result.task(TASK).getOutcome());
+        assertTrue(result.getOutput(), result.getOutput().contains("has 1 error(s) and 1 warning(s)"));
+        assertEquals(Arrays.asList(
+                "WARNING petstore.yaml: attribute info.summary is unexpected",
+                "ERROR petstore.yaml: attribute paths.'/pets'(get).responses is missing"), lines(build.file(REPORT)));
+    }
+
+    /**
+     * Duplicate operation ids are warnings, which fail the task only with failOnWarnings.
+     */
+    @Test
+    public void warningsFailOnlyWhenConfigured() throws IOException {
+        String spec = ""
+                + "openapi: 3.0.0\n"
+                + "info:\n"
+                + "  title: Petstore\n"
+                + "  version: 1.0.0\n"
+                + "paths:\n"
+                + "  /pets:\n"
+                + "    get:\n"
+                + "      operationId: pets\n"
+                + "      responses:\n"
+                + "        '200':\n"
+                + "          description: The pets\n"
+                + "    post:\n"
+                + "      operationId: pets\n"
+                + "      responses:\n"
+                + "        '201':\n"
+                + "          description: Created\n";
+        List<String> problems = Collections.singletonList("WARNING petstore.yaml: attribute "
+                + "paths.'/pets'(post).operationId 'pets' is already used by paths.'/pets'(get)");
+
+        TestBuild build = project(temporaryFolder.getRoot(), "").write("spec/petstore.yaml", spec);
+        assertEquals(TaskOutcome.SUCCESS, build.run(TASK).task(TASK).getOutcome());
+        assertEquals(problems, lines(build.file(REPORT)));
+
+        project(temporaryFolder.getRoot(), ""
+                + "tasks.named('openapiValidatePetstore') {\n"
+                + "    failOnWarnings = true\n"
+                + "}\n");
+        assertEquals(TaskOutcome.FAILED, build.runAndFail(TASK).task(TASK).getOutcome());
+        assertEquals(problems, lines(build.file(REPORT)));
+    }
+
+    private static TestBuild project(File projectDir, String tasks) throws IOException {
+        return new TestBuild(projectDir)
+                .write("settings.gradle", "rootProject.name = 'petstore'\n")
+                .write("build.gradle", ""
+                        + "plugins {\n"
+                        + "    id 'com.irl.openapi.generator'\n"
+                        + "}\n"
+                        + "openapiSources {\n"
+                        + "    petstore {\n"
+                        + "        code {\n"
+                        + "            language = '" + TestCodegen.NAME + "'\n"
+                        + "            inputSpec = file('spec/petstore.yaml')\n"
+                        + "            output = file(\"$buildDir/generated/petstore\")\n"
+                        + "        }\n"
+                        + "    }\n"
+                        + "}\n"
+                        + tasks);
+    }
+
+    private static List<String> lines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+
+/**
+ * A build applying the plugin, run with the Gradle TestKit. The plugin classpath, written by the
+ * {@code pluginClasspath} task, has the test language on it.
+ */
+class TestBuild {
+
+    private final File projectDir;
+
+    TestBuild(File projectDir) {
+        this.projectDir = projectDir;
+    }
+
+    File getProjectDir() {
+        return projectDir;
+    }
+
+    File file(String path) {
+        return new File(projectDir, path);
+    }
+
+    TestBuild write(String path, String content) throws IOException {
+        File file = file(path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /**
+     * Copies the petstore spec of the tests into the project.
+     */
+    TestBuild petstore(String path) throws IOException {
+        File file = file(path);
+        file.getParentFile().mkdirs();
+        try (InputStream in = TestBuild.class.getResourceAsStream("/petstore.yaml")) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return this;
+    }
+
+    BuildResult run(String... arguments) throws IOException {
+        return runner(arguments).build();
+    }
+
+    BuildResult runAndFail(String... arguments) throws IOException {
+        return runner(arguments).buildAndFail();
+    }
+
+    private GradleRunner runner(String... arguments) throws IOException {
+        List<String> allArguments = new ArrayList<String>(Arrays.asList(arguments));
+        allArguments.add("--stacktrace");
+        return GradleRunner.create()
+                .withProjectDir(projectDir)
+                .withPluginClasspath(pluginClasspath())
+                .withArguments(allArguments)
+                .forwardOutput();
+    }
+
+    private static List<File> pluginClasspath() throws IOException {
+        List<File> classpath = new ArrayList<File>();
+        try (InputStream in = TestBuild.class.getResourceAsStream("/plugin-classpath.txt")) {
+            if (in == null) {
+                throw new IllegalStateException("plugin-classpath.txt not found, run the tests with Gradle");
+            }
+            Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name());
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (!line.isEmpty()) {
+                    classpath.add(new File(line));
+                }
+            }
+        }
+        return classpath;
+    }
+}
@@ -0,0 +1,73 @@
+package com.irl.openapi.generator.plugin;
+
+import java.io.File;
+
+import io.swagger.codegen.CodegenType;
+import io.swagger.codegen.DefaultCodegen;
+import io.swagger.codegen.SupportingFile;
+
+/**
+ * A minimal language for the tests, rendering the templates in {@code /openapi-codegen-test}.
+ * Models and apis go to their own folders, so the tests can tell them apart.
+ */
+public class TestCodegen extends DefaultCodegen {
+
+    public static final String NAME = "openapi-codegen-test";
+
+    protected String sourceFolder = "src/gen";
+
+    public TestCodegen() {
+        templateDir = NAME;
+        embeddedTemplateDir = NAME;
+        modelTemplateFiles.put("model.mustache", ".txt");
+        apiTemplateFiles.put("api.mustache", ".txt");
+        supportingFiles.add(new SupportingFile("readme.mustache", "", "README.txt"));
+        // links the models of an allOf hierarchy like the languages with inheritance do
+        supportsInheritance = true;
+    }
+
+    @Override
+    public CodegenType getTag() {
+        return CodegenType.CLIENT;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getHelp() {
+        return "Generates text files for the tests.";
+    }
+
+    @Override
+    public String modelFileFolder() {
+        return outputFolder + File.separator + sourceFolder + "/model";
+    }
+
+    @Override
+    public String apiFileFolder() {
+        return outputFolder + File.separator + sourceFolder + "/api";
+    }
+
+    @Override
+    public String modelTestFileFolder() {
+        return outputFolder + File.separator + "test/model";
+    }
+
+    @Override
+    public String apiTestFileFolder() {
+        return outputFolder + File.separator + "test/api";
+    }
+
+    @Override
+    public String modelDocFileFolder() {
+        return outputFolder + File.separator + "docs/model";
+    }
+
+    @Override
+    public String apiDocFileFolder() {
+        return outputFolder + File.separator + "docs/api";
+    }
+}